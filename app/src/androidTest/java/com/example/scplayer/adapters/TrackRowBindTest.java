@@ -0,0 +1,105 @@
+package com.example.scplayer.adapters;
+
+import android.content.Context;
+import android.os.Debug;
+import android.view.ContextThemeWrapper;
+import android.widget.TextView;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.scplayer.R;
+import com.example.scplayer.data.TrackList;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.models.User;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Binding precomputed rows: moving a holder between rows, as scrolling does, must not allocate,
+ * and a holder moved to another row must still show that row.
+ * The rows share one artwork url, so Glide only sees the first bind and stays out of the count;
+ * the holder is never laid out, so TextView relayout isn't measured either.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TrackRowBindTest {
+    private static final int TRACKS = 20;
+    private static final int REBINDS = 1000;
+
+    private TrackAdapter adapter;
+    private BaseTrackAdapter.TrackViewHolder holder;
+
+    @Before
+    public void setUp() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = new ContextThemeWrapper(
+                    InstrumentationRegistry.getInstrumentation().getTargetContext(), R.style.Theme_SCPlayer);
+
+            List<Track> tracks = new ArrayList<>();
+            for (int i = 0; i < TRACKS; i++) {
+                User user = new User();
+                user.setId(i);
+                user.setUsername("artist " + i);
+                Track t = new Track();
+                t.setId(i);
+                t.setTitle("track " + i);
+                t.setDuration(180_000 + i * 1000);
+                t.setArtworkUrl("https://i1.sndcdn.com/artworks-shared-large.jpg");
+                t.setUser(user);
+                tracks.add(t);
+            }
+
+            adapter = new TrackAdapter(null);
+            RecyclerView recycler = new RecyclerView(context);
+            recycler.setLayoutManager(new LinearLayoutManager(context));
+            recycler.setAdapter(adapter);
+            // a first page that's already a TrackList is applied synchronously
+            adapter.setTracks(TrackList.of(tracks));
+            holder = adapter.onCreateViewHolder(recycler, adapter.getItemViewType(0));
+        });
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void bindingOtherRowsDoesNotAllocate() {
+        int[] allocations = new int[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            // the first bind starts the artwork request and sets the heart; neither changes between rows
+            adapter.onBindViewHolder(holder, 0);
+            adapter.onBindViewHolder(holder, 1);
+
+            Debug.resetThreadAllocCount();
+            Debug.startAllocCounting();
+            for (int i = 0; i < REBINDS; i++) {
+                adapter.onBindViewHolder(holder, i % 2);
+            }
+            Debug.stopAllocCounting();
+            allocations[0] = Debug.getThreadAllocCount();
+        });
+        assertEquals(0, allocations[0]);
+    }
+
+    @Test
+    public void rebindToAnotherRowUpdatesViews() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            adapter.onBindViewHolder(holder, 0);
+            adapter.onBindViewHolder(holder, 1);
+            TextView title = holder.itemView.findViewById(R.id.trackTitle);
+            assertEquals("track 1", title.getText().toString());
+
+            // a recycled holder shows the row again from scratch
+            adapter.onViewRecycled(holder);
+            adapter.onBindViewHolder(holder, 1);
+            assertEquals("track 1", title.getText().toString());
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.scplayer.data;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.scplayer.models.Playlist;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.models.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Warm read comparison of the first library frame: mapped snapshot vs. the SQLite store, both
+ * returning the same cards and liked head. Only checks that both paths return the full payload;
+ * the timings are reported, not asserted, since one wall-clock run is too noisy to gate on.
+ * Runs against its own database and snapshot file; the app's library is left alone.
+ * Results are logged under the "LibrarySnapshotBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LibrarySnapshotBenchmark {
+    private static final String TAG = "LibrarySnapshotBenchmark";
+    private static final String DATABASE = "library-benchmark.db";
+    private static final String SNAPSHOT = "library-benchmark.snapshot";
+    // the store holds exactly what the snapshot does, so both reads return the same payload
+    private static final int LIKED = LibrarySnapshot.LIKED_HEAD_SIZE;
+    private static final int PLAYLISTS = 40;
+    private static final int ROUNDS = 50;
+
+    private Context context;
+    private LibraryStore store;
+    private LibrarySnapshot snapshot;
+    private File snapshotFile;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE);
+        store = new LibraryStore(context, DATABASE);
+        snapshotFile = new File(context.getCacheDir(), SNAPSHOT);
+        snapshot = new LibrarySnapshot(snapshotFile);
+
+        List<Track> liked = new ArrayList<>();
+        for (int i = 0; i < LIKED; i++) {
+            User user = new User();
+            user.setId(i % 50);
+            user.setUsername("artist " + (i % 50));
+            Track t = new Track();
+            t.setId(i);
+            t.setTitle("track " + i);
+            t.setDuration(180_000);
+            t.setArtworkUrl("https://i1.sndcdn.com/artworks-" + i + "-large.jpg");
+            t.setUser(user);
+            liked.add(t);
+        }
+        List<Playlist> playlists = new ArrayList<>();
+        for (int i = 0; i < PLAYLISTS; i++) {
+            Playlist p = new Playlist();
+            p.setId(1000 + i);
+            p.setTitle("playlist " + i);
+            p.setTrackCount(20);
+            p.setArtworkUrl("https://i1.sndcdn.com/artworks-p" + i + "-large.jpg");
+            playlists.add(p);
+        }
+
+        store.replaceLikedTracks(liked);
+        store.replacePlaylists(playlists);
+        snapshot.writeFile(new LibrarySnapshot.Data(playlists, liked.size(), liked, new ArrayList<>()));
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+        context.deleteDatabase(DATABASE);
+        snapshotFile.delete();
+    }
+
+    @Test
+    public void snapshotVsStore() {
+        // opens the database and maps the file once, so both timings are steady-state reads
+        snapshot.readFile();
+        store.getLibrary();
+
+        long snapshotNs = 0;
+        long storeNs = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            LibrarySnapshot.Data data = snapshot.readFile();
+            snapshotNs += SystemClock.elapsedRealtimeNanos() - start;
+            assertEquals(PLAYLISTS, data.libraryCards.size());
+            assertEquals(LIKED, data.likedHead.size());
+
+            start = SystemClock.elapsedRealtimeNanos();
+            LibraryStore.Library library = store.getLibrary();
+            storeNs += SystemClock.elapsedRealtimeNanos() - start;
+            assertEquals(PLAYLISTS, library.playlists.size());
+            assertEquals(LIKED, library.liked.size());
+        }
+
+        Log.i(TAG, "snapshot avg " + (snapshotNs / ROUNDS / 1000) + "us, store avg "
+                + (storeNs / ROUNDS / 1000) + "us");
+    }
+}
@@ -1,29 +1,52 @@
 package com.example.scplayer;
 
 import android.Manifest;
+import android.content.Context;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Bundle;
+import android.view.View;
+import android.view.ViewGroup;
 
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.api.NetworkMetrics;
+import com.example.scplayer.api.RateLimiter;
+import com.example.scplayer.data.LibrarySnapshot;
+import com.example.scplayer.data.LibraryStore;
+import com.example.scplayer.data.LibrarySyncWorker;
 import com.example.scplayer.fragments.HomeFragment;
 import com.example.scplayer.fragments.LibraryFragment;
 import com.example.scplayer.fragments.SearchFragment;
+import com.example.scplayer.playback.AudioCache;
+import com.example.scplayer.playback.AudioPrecacheWorker;
+import com.example.scplayer.utils.AppExecutors;
+import com.example.scplayer.utils.MiniPlayer;
+import com.example.scplayer.utils.SharedViewPool;
+import com.example.scplayer.utils.StartupScheduler;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
-public class HomeActivity extends AppCompatActivity {
+public class HomeActivity extends AppCompatActivity implements SharedViewPool.Host {
+    private static final String TAG_HOME = "home";
+    private static final String TAG_SEARCH = "search";
+    private static final String TAG_LIBRARY = "library";
+    private static final String STATE_ACTIVE_TAB = "active_tab";
+
+    private static boolean prefetchStarted;
 
     private FragmentManager fm;
-    private Fragment home;
-    private Fragment search;
-    private Fragment library;
     private Fragment active;
+    private final RecyclerView.RecycledViewPool viewPool = SharedViewPool.create();
     
     private final ActivityResultLauncher<String> requestPermissionLauncher =
             registerForActivityResult(new ActivityResultContracts.RequestPermission(), isGranted -> {
@@ -34,25 +57,109 @@ public class HomeActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_home);
 
-        requestNotificationPermission();
-
         fm = getSupportFragmentManager();
-        
-        home = new HomeFragment();
-        search = new SearchFragment();
-        library = new LibraryFragment();
-
-        fm.beginTransaction()
-            .add(R.id.fragmentContainer, home, "home")
-            .add(R.id.fragmentContainer, search, "search")
-            .add(R.id.fragmentContainer, library, "library")
-            .hide(search)
-            .hide(library)
-            .commit();
-        
-        active = home;
-
-        setupBottomNavigation();
+        String activeTag = savedInstanceState != null
+                ? savedInstanceState.getString(STATE_ACTIVE_TAB, TAG_HOME)
+                : TAG_HOME;
+
+        // only the visible tab is created up front, the others wait for idle time or a tap
+        View container = findViewById(R.id.fragmentContainer);
+        new StartupScheduler()
+                .add(StartupScheduler.Stage.IMMEDIATE, "prefetch", () -> prefetch(this))
+                .add(StartupScheduler.Stage.IMMEDIATE, "tab." + activeTag, () -> showInitialTab(activeTag))
+                .add(StartupScheduler.Stage.IMMEDIATE, "navigation", () -> setupBottomNavigation(activeTag))
+                .add(StartupScheduler.Stage.FIRST_FRAME, "playback.bind", () -> MiniPlayer.getInstance().initialize(this))
+                .add(StartupScheduler.Stage.FIRST_FRAME, "notification.permission", this::requestNotificationPermission)
+                .add(StartupScheduler.Stage.IDLE, "viewpool.prewarm", () -> SharedViewPool.prewarm(viewPool, (ViewGroup) container))
+                .add(StartupScheduler.Stage.IDLE, "tab." + TAG_SEARCH, () -> getOrAddTab(TAG_SEARCH))
+                .add(StartupScheduler.Stage.IDLE, "tab." + TAG_LIBRARY, () -> getOrAddTab(TAG_LIBRARY))
+                .add(StartupScheduler.Stage.IDLE, "sync.schedule", () -> LibrarySyncWorker.schedule(getApplicationContext()))
+                .add(StartupScheduler.Stage.IDLE, "precache.schedule", () -> AudioPrecacheWorker.schedule(getApplicationContext()))
+                .start(container);
+    }
+
+    // started by the router while it's still deciding where to go, so connections, the database,
+    // the snapshot, the audio cache index and glide are warm by the time the first tab binds. once per process
+    public static void prefetch(Context context) {
+        synchronized (HomeActivity.class) {
+            if (prefetchStarted) return;
+            prefetchStarted = true;
+        }
+        Context app = context.getApplicationContext();
+        ApiClient.prewarm();
+        AppExecutors.background().execute(() -> {
+            LibraryStore.getInstance(app).warmUp();
+            LibrarySnapshot.getInstance(app).read();
+            AudioCache.getInstance(app);
+            Glide.get(app);
+        });
+    }
+
+    // going to the background: what the session has cost the api and the network so far, in debug builds
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (!isChangingConfigurations()) {
+            RateLimiter.getInstance().logUsage();
+            NetworkMetrics.getInstance().logSummary();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (active != null) {
+            outState.putString(STATE_ACTIVE_TAB, active.getTag());
+        }
+    }
+
+    @Override
+    public RecyclerView.RecycledViewPool getSharedViewPool() {
+        return viewPool;
+    }
+
+    // after recreation the fragment manager already has the tabs that existed, reuse them
+    private void showInitialTab(String tag) {
+        Fragment fragment = fm.findFragmentByTag(tag);
+        FragmentTransaction tx = fm.beginTransaction();
+        if (fragment == null) {
+            fragment = createTab(tag);
+            tx.add(R.id.fragmentContainer, fragment, tag);
+        } else {
+            tx.show(fragment);
+        }
+        for (String other : new String[]{TAG_HOME, TAG_SEARCH, TAG_LIBRARY}) {
+            Fragment f = fm.findFragmentByTag(other);
+            if (f != null && f != fragment) {
+                tx.hide(f);
+            }
+        }
+        tx.commitNow();
+        active = fragment;
+    }
+
+    // added hidden; shown by switchFragment
+    private Fragment getOrAddTab(String tag) {
+        Fragment fragment = fm.findFragmentByTag(tag);
+        if (fragment == null && !fm.isStateSaved()) {
+            fragment = createTab(tag);
+            fm.beginTransaction()
+                    .add(R.id.fragmentContainer, fragment, tag)
+                    .hide(fragment)
+                    .commitNow();
+        }
+        return fragment;
+    }
+
+    private static Fragment createTab(String tag) {
+        switch (tag) {
+            case TAG_SEARCH:
+                return new SearchFragment();
+            case TAG_LIBRARY:
+                return new LibraryFragment();
+            default:
+                return new HomeFragment();
+        }
     }
 
     private void requestNotificationPermission() {
@@ -64,30 +171,42 @@ public class HomeActivity extends AppCompatActivity {
         }
     }
 
-    private void setupBottomNavigation() {
+    private void setupBottomNavigation(String activeTag) {
         BottomNavigationView nav = findViewById(R.id.bottomNavigation);
-        nav.setSelectedItemId(R.id.nav_home);
+        nav.setSelectedItemId(navItemFor(activeTag));
 
         nav.setOnItemSelectedListener(item -> {
             int id = item.getItemId();
             
             if (id == R.id.nav_home) {
-                switchFragment(home);
+                switchFragment(TAG_HOME);
                 return true;
             } else if (id == R.id.nav_search) {
-                switchFragment(search);
+                switchFragment(TAG_SEARCH);
                 return true;
             } else if (id == R.id.nav_library) {
-                switchFragment(library);
+                switchFragment(TAG_LIBRARY);
                 return true;
             }
             
             return false;
         });
     }
+
+    private static int navItemFor(String tag) {
+        switch (tag) {
+            case TAG_SEARCH:
+                return R.id.nav_search;
+            case TAG_LIBRARY:
+                return R.id.nav_library;
+            default:
+                return R.id.nav_home;
+        }
+    }
     
-    private void switchFragment(Fragment fragment) {
-        if (fragment != active) {
+    private void switchFragment(String tag) {
+        Fragment fragment = getOrAddTab(tag);
+        if (fragment != null && fragment != active) {
             // clear stack
             fm.popBackStack(null, FragmentManager.POP_BACK_STACK_INCLUSIVE);
             
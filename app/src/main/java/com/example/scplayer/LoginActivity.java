@@ -23,6 +23,7 @@ public class LoginActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
         
+        // the oauth callback can start a fresh process here without going through the router
         ApiClient.initialize(this);
         
         initializeViews();
@@ -46,7 +47,8 @@ public class LoginActivity extends AppCompatActivity {
         auth = new AuthManager(this);
         
         if (auth.isLoggedIn()) {
-            NavigationHelper.navigateToMain(this);
+            HomeActivity.prefetch(this);
+            NavigationHelper.navigateToHome(this);
             return;
         }
         
@@ -71,7 +73,8 @@ public class LoginActivity extends AppCompatActivity {
                 public void onSuccess(String token) {
                     runOnUiThread(() -> {
                         Toast.makeText(LoginActivity.this, "Login successful!", Toast.LENGTH_LONG).show();
-                        NavigationHelper.navigateToMain(LoginActivity.this);
+                        HomeActivity.prefetch(LoginActivity.this);
+                        NavigationHelper.navigateToHome(LoginActivity.this);
                     });
                 }
                 
@@ -0,0 +1,39 @@
+package com.example.scplayer;
+
+import android.os.Bundle;
+import android.os.Process;
+import android.os.SystemClock;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.auth.AuthSession;
+import com.example.scplayer.utils.Logger;
+import com.example.scplayer.utils.NavigationHelper;
+
+// launcher entry. no layout, the splash theme's window background is what shows while it routes.
+// decides login vs home from the in-memory auth session and starts the home prefetch before
+// HomeActivity is even created
+public class RouterActivity extends AppCompatActivity {
+    private static final String TAG = "Router";
+    private static final Logger log = Logger.get(Logger.Subsystem.UI, TAG);
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        ApiClient.initialize(this);
+        boolean loggedIn = AuthSession.getInstance(this).isLoggedIn();
+
+        if (loggedIn) {
+            HomeActivity.prefetch(this);
+            NavigationHelper.navigateToHome(this);
+        } else {
+            NavigationHelper.navigateToLogin(this);
+        }
+        overridePendingTransition(0, 0);
+
+        long sinceStart = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        log.i(() -> "Routed to " + (loggedIn ? "home" : "login") + " " + sinceStart + "ms after process start");
+    }
+}
@@ -10,19 +10,32 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.scplayer.R;
+import com.example.scplayer.data.TrackList;
 import com.example.scplayer.models.Track;
-import com.example.scplayer.utils.TimeUtils;
+import com.example.scplayer.models.TrackRow;
+import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.utils.AppExecutors;
+import com.example.scplayer.utils.ArtworkPreloader;
+import com.example.scplayer.utils.ImageUtils;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
-public abstract class BaseTrackAdapter extends RecyclerView.Adapter<BaseTrackAdapter.TrackViewHolder> {
+public abstract class BaseTrackAdapter extends RecyclerView.Adapter<BaseTrackAdapter.TrackViewHolder>
+        implements ArtworkPreloader.ArtworkSource {
+    private static final int INLINE_ROWS = ApiConstants.PLAYLIST_TRACKS_LIMIT;
 
-    protected List<Track> tracks = new ArrayList<>();
-    protected List<Long> likedTrackIds = new ArrayList<>();
+    protected TrackList tracks = TrackList.empty();
+    protected List<TrackRow> rows = new ArrayList<>();
+    protected Set<Long> likedTrackIds = new HashSet<>();
     protected OnTrackClickListener listener;
+    private int artworkSize;
+    // bumped on every setTracks so a slower, older page can't overwrite a newer one
+    private int generation;
 
     public interface OnTrackClickListener {
         void onTrackClick(Track track, int pos);
@@ -33,42 +46,119 @@ public abstract class BaseTrackAdapter extends RecyclerView.Adapter<BaseTrackAda
         this.listener = listener;
     }
 
+    // rows are built off the main thread, the list swaps in once they're ready. a first page that's
+    // already a TrackList (e.g. prefetched into the repository) is cheap enough to show in this frame
     public void setTracks(List<Track> tracks) {
-        this.tracks = tracks;
+        int gen = ++generation;
+        if (rows.isEmpty() && tracks instanceof TrackList && tracks.size() <= INLINE_ROWS) {
+            this.tracks = (TrackList) tracks;
+            this.rows = TrackRow.fromTracks(this.tracks, likedTrackIds);
+            notifyDataSetChanged();
+            return;
+        }
+
+        List<Track> input = tracks instanceof TrackList ? tracks : new ArrayList<>(tracks);
+        Set<Long> liked = new HashSet<>(likedTrackIds);
+
+        AppExecutors.data().execute(() -> {
+            TrackList snapshot = TrackList.of(input);
+            List<TrackRow> built = TrackRow.fromTracks(snapshot, liked);
+            AppExecutors.main().execute(() -> {
+                if (gen != generation) return;
+
+                // likes may have changed while the rows were built
+                for (TrackRow row : built) {
+                    row.liked = likedTrackIds.contains(row.id);
+                }
+                this.tracks = snapshot;
+                this.rows = built;
+                notifyDataSetChanged();
+            });
+        });
+    }
+
+    protected void clearRows() {
+        generation++;
+        tracks = TrackList.empty();
+        rows = new ArrayList<>();
         notifyDataSetChanged();
     }
 
+    // only rows whose heart actually flipped are rebound
     public void setLikedTrackIds(List<Long> likedTrackIds) {
         this.likedTrackIds.clear();
         if (likedTrackIds != null) {
             this.likedTrackIds.addAll(likedTrackIds);
         }
-        notifyDataSetChanged();
+        for (int i = 0; i < rows.size(); i++) {
+            TrackRow row = rows.get(i);
+            boolean liked = this.likedTrackIds.contains(row.id);
+            if (row.liked != liked) {
+                row.liked = liked;
+                notifyItemChanged(i);
+            }
+        }
     }
 
     public void addLikedTrack(long trackId) {
-        if (!likedTrackIds.contains(trackId)) {
-            likedTrackIds.add(trackId);
-            notifyItemChanged(findTrackPosition(trackId));
+        if (likedTrackIds.add(trackId)) {
+            updateLiked(trackId, true);
         }
     }
 
     public void removeLikedTrack(long trackId) {
-        likedTrackIds.remove(trackId);
-        notifyItemChanged(findTrackPosition(trackId));
+        if (likedTrackIds.remove(trackId)) {
+            updateLiked(trackId, false);
+        }
+    }
+
+    private void updateLiked(long trackId, boolean liked) {
+        int pos = findTrackPosition(trackId);
+        if (pos >= 0) {
+            rows.get(pos).liked = liked;
+            notifyItemChanged(pos);
+        }
     }
 
     protected int findTrackPosition(long trackId) {
-        for (int i = 0; i < tracks.size(); i++) {
-            if (tracks.get(i).getId() == trackId) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).id == trackId) {
                 return i;
             }
         }
         return -1;
     }
 
-    public List<Track> getTracks() {
-        return new ArrayList<>(tracks);
+    // read-only view, safe to hand to the player queue as is
+    public TrackList getTracks() {
+        return tracks;
+    }
+
+    // -1 for a position that's no longer in the list, e.g. a row animating out
+    public long getTrackId(int pos) {
+        return pos >= 0 && pos < rows.size() ? rows.get(pos).id : -1;
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        artworkSize = ImageUtils.dpToPx(recyclerView.getContext(), ImageUtils.TRACK_THUMBNAIL_DP);
+    }
+
+    @Override
+    public int getItemViewType(int pos) {
+        // layout id so the shared view pool can hold both row types
+        return R.layout.item_track;
+    }
+
+    @Override
+    public String getPreloadArtworkUrl(int pos) {
+        return rows.get(pos).artworkUrl;
+    }
+
+    @Override
+    public int getArtworkSize() {
+        return artworkSize;
     }
 
     @NonNull
@@ -81,14 +171,30 @@ public abstract class BaseTrackAdapter extends RecyclerView.Adapter<BaseTrackAda
 
     @Override
     public void onBindViewHolder(@NonNull TrackViewHolder holder, int pos) {
-        Track track = tracks.get(pos);
-        boolean isLiked = likedTrackIds.contains(track.getId());
-        holder.bind(track, listener, isLiked);
+        holder.bind(rows.get(pos), artworkSize);
+    }
+
+    // a pooled row may be picked up by another list whose glide requests were cleared with its screen
+    @Override
+    public void onViewRecycled(@NonNull TrackViewHolder holder) {
+        holder.unbind();
     }
 
     @Override
     public int getItemCount() {
-        return tracks.size();
+        return rows.size();
+    }
+
+    void dispatchTrackClick(int pos) {
+        if (listener != null && pos >= 0 && pos < rows.size()) {
+            listener.onTrackClick(tracks.get(pos), pos);
+        }
+    }
+
+    void dispatchLikeClick(int pos) {
+        if (listener != null && pos >= 0 && pos < rows.size()) {
+            listener.onLikeClick(tracks.get(pos), pos, rows.get(pos).liked);
+        }
     }
 
     protected static class TrackViewHolder extends RecyclerView.ViewHolder {
@@ -97,6 +203,11 @@ public abstract class BaseTrackAdapter extends RecyclerView.Adapter<BaseTrackAda
         private final TextView artist;
         private final TextView duration;
         private final ImageButton btnLike;
+        // what the views currently show
+        private TrackRow boundRow;
+        private String boundArtworkUrl;
+        private int boundArtworkSize;
+        private int boundLikeIcon;
 
         public TrackViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -105,36 +216,54 @@ public abstract class BaseTrackAdapter extends RecyclerView.Adapter<BaseTrackAda
             artist = itemView.findViewById(R.id.artistName);
             duration = itemView.findViewById(R.id.trackDuration);
             btnLike = itemView.findViewById(R.id.btnLike);
-        }
-
-        public void bind(Track track, OnTrackClickListener listener, boolean isLiked) {
-            title.setText(track.getTitle());
-            artist.setText(track.getUser() != null ? track.getUser().getUsername() : "Unknown Artist");
-            duration.setText(TimeUtils.formatDuration(track.getDuration()));
-
-            String artwork = track.getHighQualityArtworkUrl();
-            if (artwork != null && !artwork.isEmpty()) {
-                Glide.with(itemView.getContext())
-                        .load(artwork)
-                        .placeholder(R.drawable.ic_library)
-                        .into(cover);
-            } else {
-                cover.setImageResource(R.drawable.ic_library);
-            }
-
-            btnLike.setImageResource(isLiked ? R.drawable.ic_heart_filled : R.drawable.ic_heart_outline);
 
+            // set once; the holder may be bound by any track adapter sharing the view pool
             itemView.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onTrackClick(track, getAdapterPosition());
+                BaseTrackAdapter adapter = boundAdapter();
+                if (adapter != null) {
+                    adapter.dispatchTrackClick(getBindingAdapterPosition());
                 }
             });
 
             btnLike.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onLikeClick(track, getAdapterPosition(), isLiked);
+                BaseTrackAdapter adapter = boundAdapter();
+                if (adapter != null) {
+                    adapter.dispatchLikeClick(getBindingAdapterPosition());
                 }
             });
         }
+
+        private BaseTrackAdapter boundAdapter() {
+            RecyclerView.Adapter<?> adapter = getBindingAdapter();
+            return adapter instanceof BaseTrackAdapter ? (BaseTrackAdapter) adapter : null;
+        }
+
+        // a rebind of what's already shown (a heart flip, a notifyDataSetChanged) only touches the views
+        // that change, so it allocates nothing. a new artwork url still builds one glide request
+        public void bind(TrackRow row, int artworkSize) {
+            if (row != boundRow) {
+                title.setText(row.title);
+                artist.setText(row.artist);
+                duration.setText(row.duration);
+                boundRow = row;
+            }
+            if (!Objects.equals(row.artworkUrl, boundArtworkUrl) || artworkSize != boundArtworkSize) {
+                ImageUtils.loadThumbnail(cover, row.artworkUrl, artworkSize);
+                boundArtworkUrl = row.artworkUrl;
+                boundArtworkSize = artworkSize;
+            }
+            int likeIcon = row.liked ? R.drawable.ic_heart_filled : R.drawable.ic_heart_outline;
+            if (likeIcon != boundLikeIcon) {
+                btnLike.setImageResource(likeIcon);
+                boundLikeIcon = likeIcon;
+            }
+        }
+
+        void unbind() {
+            boundRow = null;
+            boundArtworkUrl = null;
+            boundArtworkSize = 0;
+            boundLikeIcon = 0;
+        }
     }
 }
@@ -7,20 +7,28 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.scplayer.R;
 import com.example.scplayer.models.Playlist;
+import com.example.scplayer.utils.AppExecutors;
+import com.example.scplayer.utils.ArtworkPreloader;
 import com.example.scplayer.utils.ImageUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class PlaylistAdapter extends RecyclerView.Adapter<PlaylistAdapter.PlaylistViewHolder> {
+public class PlaylistAdapter extends RecyclerView.Adapter<PlaylistAdapter.PlaylistViewHolder>
+        implements ArtworkPreloader.ArtworkSource {
 
     private List<Playlist> playlists = new ArrayList<>();
     private OnPlaylistClickListener listener;
+    private int artworkSize;
+    // bumped on every setPlaylists so an older diff can't land after a newer list
+    private int generation;
 
     public interface OnPlaylistClickListener {
         void onPlaylistClick(Playlist playlist);
@@ -30,9 +38,86 @@ public class PlaylistAdapter extends RecyclerView.Adapter<PlaylistAdapter.Playli
         this.listener = listener;
     }
 
+    // the first list is shown as is; later ones are diffed on the data thread and only the
+    // changed cards are rebound
     public void setPlaylists(List<Playlist> playlists) {
-        this.playlists = playlists;
-        notifyDataSetChanged();
+        List<Playlist> old = this.playlists;
+        int gen = ++generation;
+        if (old.isEmpty() || playlists.isEmpty()) {
+            this.playlists = playlists;
+            notifyDataSetChanged();
+            return;
+        }
+
+        AppExecutors.data().execute(() -> {
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new CardDiff(old, playlists));
+            AppExecutors.main().execute(() -> {
+                if (gen != generation) return;
+                this.playlists = playlists;
+                diff.dispatchUpdatesTo(this);
+            });
+        });
+    }
+
+    private static class CardDiff extends DiffUtil.Callback {
+        private final List<Playlist> oldList;
+        private final List<Playlist> newList;
+
+        CardDiff(List<Playlist> oldList, List<Playlist> newList) {
+            this.oldList = oldList;
+            this.newList = newList;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPos, int newPos) {
+            return oldList.get(oldPos).getId() == newList.get(newPos).getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPos, int newPos) {
+            Playlist a = oldList.get(oldPos);
+            Playlist b = newList.get(newPos);
+            // the bound click listener holds the card, so embedded tracks must be the same too
+            return a.getTracks() == b.getTracks()
+                    && a.getTrackCount() == b.getTrackCount()
+                    && Objects.equals(a.getTitle(), b.getTitle())
+                    && Objects.equals(a.getArtworkUrl(), b.getArtworkUrl());
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        int columns = 1;
+        if (recyclerView.getLayoutManager() instanceof GridLayoutManager) {
+            columns = ((GridLayoutManager) recyclerView.getLayoutManager()).getSpanCount();
+        }
+        artworkSize = ImageUtils.gridArtworkSize(recyclerView.getContext(), columns);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return R.layout.item_playlist;
+    }
+
+    @Override
+    public String getPreloadArtworkUrl(int position) {
+        return ImageUtils.getMediumQualityArtworkUrl(playlists.get(position).getArtworkUrl());
+    }
+
+    @Override
+    public int getArtworkSize() {
+        return artworkSize;
     }
 
     @NonNull
@@ -46,7 +131,7 @@ public class PlaylistAdapter extends RecyclerView.Adapter<PlaylistAdapter.Playli
     @Override
     public void onBindViewHolder(@NonNull PlaylistViewHolder holder, int position) {
         Playlist playlist = playlists.get(position);
-        holder.bind(playlist, listener);
+        holder.bind(playlist, listener, artworkSize);
     }
 
     @Override
@@ -54,6 +139,11 @@ public class PlaylistAdapter extends RecyclerView.Adapter<PlaylistAdapter.Playli
         return playlists.size();
     }
 
+    // null for a position that's no longer in the list
+    public Playlist getPlaylist(int pos) {
+        return pos >= 0 && pos < playlists.size() ? playlists.get(pos) : null;
+    }
+
     static class PlaylistViewHolder extends RecyclerView.ViewHolder {
         private ImageView artwork;
         private TextView title;
@@ -66,7 +156,7 @@ public class PlaylistAdapter extends RecyclerView.Adapter<PlaylistAdapter.Playli
             trackCount = itemView.findViewById(R.id.playlistTrackCount);
         }
 
-        public void bind(Playlist playlist, OnPlaylistClickListener listener) {
+        public void bind(Playlist playlist, OnPlaylistClickListener listener, int artworkSize) {
             title.setText(playlist.getTitle());
             trackCount.setText(playlist.getTrackCount() + " tracks");
 
@@ -74,16 +164,7 @@ public class PlaylistAdapter extends RecyclerView.Adapter<PlaylistAdapter.Playli
             artwork.setBackgroundColor(0x00000000);
             artwork.setPadding(0, 0, 0, 0);
             
-            String artworkUrl = ImageUtils.getMediumQualityArtworkUrl(playlist.getArtworkUrl());
-            if (artworkUrl != null && !artworkUrl.isEmpty()) {
-                Glide.with(itemView.getContext())
-                        .load(artworkUrl)
-                        .placeholder(R.drawable.ic_library)
-                        .error(R.drawable.ic_library)
-                        .into(artwork);
-            } else {
-                artwork.setImageResource(R.drawable.ic_library);
-            }
+            ImageUtils.loadThumbnail(artwork, ImageUtils.getMediumQualityArtworkUrl(playlist.getArtworkUrl()), artworkSize);
 
             itemView.setOnClickListener(v -> {
                 if (listener != null) {
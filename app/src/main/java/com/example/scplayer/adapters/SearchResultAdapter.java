@@ -7,7 +7,6 @@ public class SearchResultAdapter extends BaseTrackAdapter {
     }
 
     public void clearTracks() {
-        this.tracks.clear();
-        notifyDataSetChanged();
+        clearRows();
     }
 }
@@ -1,23 +1,43 @@
 package com.example.scplayer.api;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 
 import com.example.scplayer.BuildConfig;
-import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.auth.AuthSession;
+import com.example.scplayer.utils.AppExecutors;
+import com.example.scplayer.utils.Logger;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Dns;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
+import okhttp3.Response;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class ApiClient {
     private static final String BASE_URL = "https://api.soundcloud.com/";
+    // idle connections stay in the pool for minutes; one warm-up per host per interval is enough
+    private static final long WARM_HOST_INTERVAL_MS = 60_000;
+    private static final Map<String, Long> warmedHosts = new HashMap<>();
+    // api, artwork cdn and the cdn stream urls redirect to
+    private static final String[] PREWARM_URLS = {
+            BASE_URL,
+            "https://i1.sndcdn.com/",
+            "https://cf-media.sndcdn.com/"
+    };
+    private static OkHttpClient httpClient = null;
     private static Retrofit retrofit = null;
     private static SoundCloudApi api = null;
     private static Context ctx;
@@ -33,13 +53,82 @@ public class ApiClient {
         return api;
     }
 
+    // shared by retrofit, glide and exoplayer; newBuilder() keeps one connection pool, dispatcher,
+    // dns cache and metrics listener
+    public static synchronized OkHttpClient getHttpClient() {
+        if (httpClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            // artwork bursts while scrolling shouldn't queue behind the default 5 per host
+            dispatcher.setMaxRequests(32);
+            dispatcher.setMaxRequestsPerHost(8);
+
+            httpClient = new OkHttpClient.Builder()
+                    .dispatcher(dispatcher)
+                    .connectionPool(new ConnectionPool(10, 5, TimeUnit.MINUTES))
+                    .dns(new CachingDns(Dns.SYSTEM))
+                    .eventListenerFactory(NetworkMetrics.getInstance().listenerFactory())
+                    .connectTimeout(30, TimeUnit.SECONDS)
+                    .readTimeout(30, TimeUnit.SECONDS)
+                    .writeTimeout(30, TimeUnit.SECONDS)
+                    .build();
+        }
+        return httpClient;
+    }
+
+    // HEAD to each host so dns, tcp and tls are done before the first real request needs them.
+    // the status doesn't matter, only the pooled connection
+    public static void prewarm() {
+        AppExecutors.background().execute(ApiClient::openConnections);
+    }
+
+    // the same for the host of one url, e.g. a stream the user is about to tap. a host warmed
+    // recently still has its pooled connection, so it's skipped
+    public static void warmHost(String url) {
+        HttpUrl parsed = url != null ? HttpUrl.parse(url) : null;
+        if (parsed == null) return;
+        String origin = parsed.scheme() + "://" + parsed.host() + "/";
+        long now = System.currentTimeMillis();
+        synchronized (warmedHosts) {
+            Long last = warmedHosts.get(origin);
+            if (last != null && now - last < WARM_HOST_INTERVAL_MS) return;
+            warmedHosts.put(origin, now);
+        }
+        head(getHttpClient(), origin);
+    }
+
+    private static void openConnections() {
+        OkHttpClient client = getHttpClient();
+        for (String url : PREWARM_URLS) {
+            head(client, url);
+        }
+    }
+
+    private static void head(OkHttpClient client, String url) {
+        Request request = new Request.Builder().url(url).head().build();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(okhttp3.Call call, Response response) {
+                response.close();
+            }
+
+            @Override
+            public void onFailure(okhttp3.Call call, IOException e) {
+            }
+        });
+    }
+
     private static Retrofit getClient() {
         if (retrofit == null) {
-            HttpLoggingInterceptor log = new HttpLoggingInterceptor();
-            log.setLevel(HttpLoggingInterceptor.Level.BODY);
+            OkHttpClient.Builder clientBuilder = getHttpClient().newBuilder()
+                    // throttled requests are rejected before they're logged or sent
+                    .addInterceptor(RateLimiter.getInstance());
+
+            HttpLoggingInterceptor log = createHttpLogging();
+            if (log != null) {
+                clientBuilder.addInterceptor(log);
+            }
 
-            OkHttpClient client = new OkHttpClient.Builder()
-                    .addInterceptor(log)
+            OkHttpClient client = clientBuilder
                     .addInterceptor(chain -> {
                         Request req = chain.request();
                         Request.Builder builder = req.newBuilder();
@@ -55,9 +144,6 @@ public class ApiClient {
                         Request newReq = builder.build();
                         return chain.proceed(newReq);
                     })
-                    .connectTimeout(30, TimeUnit.SECONDS)
-                    .readTimeout(30, TimeUnit.SECONDS)
-                    .writeTimeout(30, TimeUnit.SECONDS)
                     .build();
 
             Gson gson = new GsonBuilder()
@@ -73,10 +159,24 @@ public class ApiClient {
         return retrofit;
     }
 
+    // headers by default, bodies only when the http subsystem is set to VERBOSE, nothing when it's off
+    private static HttpLoggingInterceptor createHttpLogging() {
+        Logger.Level level = Logger.getLevel(Logger.Subsystem.HTTP);
+        if (level.compareTo(Logger.Level.INFO) > 0) return null;
+
+        Logger httpLog = Logger.get(Logger.Subsystem.HTTP, "OkHttp");
+        HttpLoggingInterceptor log = new HttpLoggingInterceptor(message -> httpLog.i(() -> message));
+        log.setLevel(level == Logger.Level.VERBOSE
+                ? HttpLoggingInterceptor.Level.BODY
+                : HttpLoggingInterceptor.Level.HEADERS);
+        log.redactHeader("Authorization");
+        return log;
+    }
+
     private static String getAccessToken() {
         if (ctx == null) return null;
-        SharedPreferences prefs = ctx.getSharedPreferences(ApiConstants.PREFS_NAME, Context.MODE_PRIVATE);
-        return prefs.getString(ApiConstants.KEY_ACCESS_TOKEN, null);
+        // per request, so from memory rather than prefs
+        return AuthSession.getInstance(ctx).getAccessToken();
     }
 
     public static String getClientId() {
@@ -0,0 +1,94 @@
+package com.example.scplayer.api;
+
+import androidx.annotation.NonNull;
+
+import com.example.scplayer.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+// CompletableFuture view of retrofit calls, so independent requests can run side by side
+// and be combined instead of nesting callbacks. a non-2xx or empty body fails with HttpException
+public final class ApiFutures {
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "scplayer-timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ApiFutures() {
+    }
+
+    public static <T> CompletableFuture<T> call(CallRegistry calls, Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        calls.enqueue(call, new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> c, @NonNull Response<T> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    future.complete(response.body());
+                } else {
+                    future.completeExceptionally(new HttpException(response));
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> c, @NonNull Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        // a timeout or cancel downstream also stops the request
+        future.whenComplete((result, error) -> {
+            if (error != null) call.cancel();
+        });
+        return future;
+    }
+
+    // CompletableFuture.orTimeout needs api 31, so schedule it ourselves
+    public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, long timeoutMs) {
+        ScheduledFuture<?> task = timer.schedule(
+                () -> future.completeExceptionally(new TimeoutException()), timeoutMs, TimeUnit.MILLISECONDS);
+        future.whenComplete((result, error) -> task.cancel(false));
+        return future;
+    }
+
+    public static <T> CompletableFuture<T> orElse(CompletableFuture<T> future, T fallback) {
+        return future.exceptionally(error -> fallback);
+    }
+
+    // all results in input order; fails as soon as any of them fails
+    public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<T> results = new ArrayList<>(futures.size());
+                    for (CompletableFuture<T> f : futures) {
+                        results.add(f.join());
+                    }
+                    return results;
+                });
+    }
+
+    // hands the outcome to the main thread, unless the view behind the registry is gone by then
+    public static <T> void deliver(CompletableFuture<T> future, CallRegistry calls, BiConsumer<T, Throwable> consumer) {
+        future.whenCompleteAsync((result, error) -> {
+            if (!calls.isActive()) return;
+            consumer.accept(result, unwrap(error));
+        }, AppExecutors.main());
+    }
+
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
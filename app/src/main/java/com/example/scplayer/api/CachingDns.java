@@ -0,0 +1,61 @@
+package com.example.scplayer.api;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Dns;
+
+// the app talks to a handful of hosts over and over; keep their lookups for a few minutes
+// and fall back to the last good answer if the resolver fails
+public class CachingDns implements Dns {
+    private static final long TTL_MS = 5 * 60 * 1000;
+
+    private static final class Entry {
+        final List<InetAddress> addresses;
+        final long resolvedAt;
+
+        Entry(List<InetAddress> addresses, long resolvedAt) {
+            this.addresses = addresses;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+
+    private final Dns delegate;
+    private final Map<String, Entry> cache = new HashMap<>();
+
+    public CachingDns(Dns delegate) {
+        this.delegate = delegate;
+    }
+
+    @NonNull
+    @Override
+    public List<InetAddress> lookup(@NonNull String hostname) throws UnknownHostException {
+        long now = SystemClock.elapsedRealtime();
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(hostname);
+        }
+        if (entry != null && now - entry.resolvedAt < TTL_MS) {
+            NetworkMetrics.getInstance().onDnsCacheHit();
+            return entry.addresses;
+        }
+
+        try {
+            List<InetAddress> addresses = delegate.lookup(hostname);
+            synchronized (cache) {
+                cache.put(hostname, new Entry(addresses, now));
+            }
+            return addresses;
+        } catch (UnknownHostException e) {
+            if (entry != null) return entry.addresses;
+            throw e;
+        }
+    }
+}
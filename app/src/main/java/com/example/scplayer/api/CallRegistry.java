@@ -0,0 +1,107 @@
+package com.example.scplayer.api;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ViewModel;
+
+import java.io.Closeable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+// calls made on behalf of a fragment view or a view model. whatever is still in flight is cancelled
+// when the owner goes away, and responses that arrive after that never reach the callback.
+// future chains may enqueue from a background thread, so the bookkeeping is synchronized
+public class CallRegistry implements DefaultLifecycleObserver, Closeable {
+    private static final CallRegistry UNSCOPED = new CallRegistry("background");
+
+    private final String feature;
+    private final Set<Call<?>> inFlight = new HashSet<>();
+    private volatile boolean destroyed;
+
+    private CallRegistry(String feature) {
+        this.feature = feature;
+    }
+
+    // must be called once the view exists, i.e. from onViewCreated
+    public static CallRegistry forView(Fragment fragment) {
+        CallRegistry registry = new CallRegistry(fragment.getClass().getSimpleName());
+        fragment.getViewLifecycleOwner().getLifecycle().addObserver(registry);
+        return registry;
+    }
+
+    // lives as long as the view model, so loads keep running across configuration changes
+    // and are only cancelled from onCleared()
+    public static CallRegistry forViewModel(ViewModel viewModel) {
+        CallRegistry registry = new CallRegistry(viewModel.getClass().getSimpleName());
+        viewModel.addCloseable(registry);
+        return registry;
+    }
+
+    // for callers with no screen attached, e.g. background sync; never cancels
+    public static CallRegistry unscoped() {
+        return UNSCOPED;
+    }
+
+    public boolean isActive() {
+        return !destroyed;
+    }
+
+    public <T> void enqueue(Call<T> call, Callback<T> callback) {
+        synchronized (inFlight) {
+            if (destroyed) {
+                call.cancel();
+                return;
+            }
+            inFlight.add(call);
+        }
+        RateLimiter.getInstance().recordFeatureCall(feature);
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> c, @NonNull Response<T> response) {
+                forget(call);
+                if (!destroyed) {
+                    callback.onResponse(c, response);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> c, @NonNull Throwable t) {
+                forget(call);
+                if (!destroyed && !c.isCanceled()) {
+                    callback.onFailure(c, t);
+                }
+            }
+        });
+    }
+
+    private void forget(Call<?> call) {
+        synchronized (inFlight) {
+            inFlight.remove(call);
+        }
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        close();
+        owner.getLifecycle().removeObserver(this);
+    }
+
+    @Override
+    public void close() {
+        if (this == UNSCOPED) return;
+        synchronized (inFlight) {
+            destroyed = true;
+            for (Call<?> call : inFlight) {
+                call.cancel();
+            }
+            inFlight.clear();
+        }
+    }
+}
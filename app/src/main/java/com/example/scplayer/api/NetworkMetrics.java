@@ -0,0 +1,113 @@
+package com.example.scplayer.api;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.example.scplayer.utils.Logger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+// counters for the shared http client: how often a call got a pooled connection versus paying
+// for dns + tcp + tls, and how much time those cost. one listener per call, counters are global
+public class NetworkMetrics {
+    private static final Logger log = Logger.get(Logger.Subsystem.HTTP, "NetworkMetrics");
+    private static final NetworkMetrics instance = new NetworkMetrics();
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong newConnections = new AtomicLong();
+    private final AtomicLong reusedConnections = new AtomicLong();
+    private final AtomicLong dnsLookups = new AtomicLong();
+    private final AtomicLong dnsCacheHits = new AtomicLong();
+    private final AtomicLong dnsMs = new AtomicLong();
+    private final AtomicLong connectMs = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    public static NetworkMetrics getInstance() {
+        return instance;
+    }
+
+    public EventListener.Factory listenerFactory() {
+        return call -> new CallListener();
+    }
+
+    void onDnsCacheHit() {
+        dnsCacheHits.incrementAndGet();
+    }
+
+    // http logging is only on in debug builds
+    public void logSummary() {
+        log.i(() -> "Network: " + describe());
+    }
+
+    public String describe() {
+        return "calls " + calls.get() + " (" + failedCalls.get() + " failed)"
+                + ", connections new " + newConnections.get() + " / reused " + reusedConnections.get()
+                + ", dns " + dnsLookups.get() + " lookups (" + dnsCacheHits.get() + " cached, " + dnsMs.get() + "ms)"
+                + ", connect " + connectMs.get() + "ms"
+                + ", received " + (bytesReceived.get() / 1024) + "KB";
+    }
+
+    private class CallListener extends EventListener {
+        private long dnsStart;
+        private long connectStart;
+        private boolean connected;
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+            dnsStart = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> list) {
+            dnsLookups.incrementAndGet();
+            dnsMs.addAndGet(SystemClock.elapsedRealtime() - dnsStart);
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy) {
+            connectStart = SystemClock.elapsedRealtime();
+            connected = true;
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy, Protocol protocol) {
+            connectMs.addAndGet(SystemClock.elapsedRealtime() - connectStart);
+        }
+
+        @Override
+        public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+            if (connected) {
+                newConnections.incrementAndGet();
+            } else {
+                reusedConnections.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            bytesReceived.addAndGet(byteCount);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            failedCalls.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.scplayer.api;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.example.scplayer.utils.Logger;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+// client-side throttle in front of the api. every endpoint class has its own token bucket and
+// all of them draw from a shared one that keeps a reserve only playback may dip into.
+// a 429 blocks its class until Retry-After has passed. throttled requests fail right away with
+// RateLimitedException so callers fall back to what they have stored.
+// requests nobody asked for yet (speculative stream resolves, playlist prefetches) carry
+// PREFETCH_HEADER: they pay the reserve like any other background call, and a 429 they run
+// into blocks prefetching, not playback or browsing
+public class RateLimiter implements Interceptor {
+    private static final Logger log = Logger.get(Logger.Subsystem.HTTP, "RateLimiter");
+    private static final long DEFAULT_RETRY_AFTER_MS = 30_000;
+    // only playback waits for a token; anything else would sit on a dispatcher thread
+    private static final long PLAYBACK_MAX_WAIT_MS = 2_000;
+    private static final int GLOBAL_CAPACITY = 40;
+    private static final double GLOBAL_PER_SECOND = 2;
+    private static final int PLAYBACK_RESERVE = 8;
+
+    public static final String PREFETCH_HEADER = "X-Prefetch";
+
+    public enum EndpointClass {
+        PLAYBACK(10, 1),
+        PREFETCH(10, 0.5),
+        AUTH(3, 0.1),
+        WRITE(10, 0.5),
+        SEARCH(10, 1),
+        BROWSE(20, 1);
+
+        final int capacity;
+        final double perSecond;
+
+        EndpointClass(int capacity, double perSecond) {
+            this.capacity = capacity;
+            this.perSecond = perSecond;
+        }
+    }
+
+    public static class RateLimitedException extends IOException {
+        public final EndpointClass endpointClass;
+        public final long retryAfterMs;
+
+        RateLimitedException(EndpointClass endpointClass, long retryAfterMs) {
+            super("Rate limited: " + endpointClass + ", retry in " + retryAfterMs + "ms");
+            this.endpointClass = endpointClass;
+            this.retryAfterMs = retryAfterMs;
+        }
+    }
+
+    private static final class Bucket {
+        final double capacity;
+        final double perMs;
+        double tokens;
+        long lastRefill;
+
+        Bucket(double capacity, double perSecond) {
+            this.capacity = capacity;
+            this.perMs = perSecond / 1000.0;
+            this.tokens = capacity;
+            this.lastRefill = SystemClock.elapsedRealtime();
+        }
+
+        void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * perMs);
+            lastRefill = now;
+        }
+
+        long msUntil(double needed) {
+            return tokens >= needed ? 0 : (long) Math.ceil((needed - tokens) / perMs);
+        }
+    }
+
+    private static RateLimiter instance;
+
+    private final Bucket global = new Bucket(GLOBAL_CAPACITY, GLOBAL_PER_SECOND);
+    private final Map<EndpointClass, Bucket> buckets = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Long> blockedUntil = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, int[]> endpointUsage = new EnumMap<>(EndpointClass.class);
+    private final Map<String, Integer> featureUsage = new HashMap<>();
+
+    private RateLimiter() {
+        for (EndpointClass c : EndpointClass.values()) {
+            buckets.put(c, new Bucket(c.capacity, c.perSecond));
+            // sent, throttled, 429
+            endpointUsage.put(c, new int[3]);
+        }
+    }
+
+    public static synchronized RateLimiter getInstance() {
+        if (instance == null) {
+            instance = new RateLimiter();
+        }
+        return instance;
+    }
+
+    public static EndpointClass classify(Request request) {
+        String path = request.url().encodedPath();
+        if (path.startsWith("/oauth2")) return EndpointClass.AUTH;
+        if (request.header(PREFETCH_HEADER) != null) return EndpointClass.PREFETCH;
+        if (path.endsWith("/streams")) return EndpointClass.PLAYBACK;
+        if (!"GET".equals(request.method())) return EndpointClass.WRITE;
+        if (path.equals("/tracks")) return EndpointClass.SEARCH;
+        return EndpointClass.BROWSE;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        EndpointClass c = classify(request);
+        if (c == EndpointClass.PREFETCH) {
+            // only meant for this interceptor
+            request = request.newBuilder().removeHeader(PREFETCH_HEADER).build();
+        }
+
+        acquire(c);
+        Response response = chain.proceed(request);
+        if (response.code() == 429) {
+            long retryAfter = parseRetryAfter(response.header("Retry-After"));
+            block(c, retryAfter);
+        }
+        return response;
+    }
+
+    private void acquire(EndpointClass c) throws IOException {
+        long waited = 0;
+        while (true) {
+            long waitMs;
+            synchronized (this) {
+                long now = SystemClock.elapsedRealtime();
+                Long until = blockedUntil.get(c);
+                if (until != null && until > now) {
+                    endpointUsage.get(c)[1]++;
+                    throw new RateLimitedException(c, until - now);
+                }
+
+                Bucket bucket = buckets.get(c);
+                bucket.refill(now);
+                global.refill(now);
+                double reserve = c == EndpointClass.PLAYBACK ? 0 : PLAYBACK_RESERVE;
+                if (bucket.tokens >= 1 && global.tokens - reserve >= 1) {
+                    bucket.tokens--;
+                    global.tokens--;
+                    endpointUsage.get(c)[0]++;
+                    return;
+                }
+
+                waitMs = Math.max(bucket.msUntil(1), global.msUntil(reserve + 1));
+                if (c != EndpointClass.PLAYBACK || waited + waitMs > PLAYBACK_MAX_WAIT_MS) {
+                    endpointUsage.get(c)[1]++;
+                    throw new RateLimitedException(c, waitMs);
+                }
+            }
+            SystemClock.sleep(waitMs);
+            waited += waitMs;
+        }
+    }
+
+    private synchronized void block(EndpointClass c, long retryAfterMs) {
+        endpointUsage.get(c)[2]++;
+        blockedUntil.put(c, SystemClock.elapsedRealtime() + retryAfterMs);
+        // the server is already unhappy, don't spend what's left of the local budget either
+        buckets.get(c).tokens = 0;
+        log.w(() -> "429 on " + c + ", backing off " + retryAfterMs + "ms");
+    }
+
+    // Retry-After is either delta-seconds or an http date
+    static long parseRetryAfter(String value) {
+        if (value == null) return DEFAULT_RETRY_AFTER_MS;
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            Date date = format.parse(value.trim());
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : DEFAULT_RETRY_AFTER_MS;
+        } catch (ParseException e) {
+            return DEFAULT_RETRY_AFTER_MS;
+        }
+    }
+
+    public synchronized boolean isThrottled(EndpointClass c) {
+        Long until = blockedUntil.get(c);
+        return until != null && until > SystemClock.elapsedRealtime();
+    }
+
+    // per screen/feature, counted when the call is handed to a CallRegistry
+    public synchronized void recordFeatureCall(String feature) {
+        Integer count = featureUsage.get(feature);
+        featureUsage.put(feature, count == null ? 1 : count + 1);
+    }
+
+    // per class and feature; http logging is only on in debug builds
+    public void logUsage() {
+        log.i(() -> "Api usage:\n" + describeUsage());
+    }
+
+    public synchronized String describeUsage() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<EndpointClass, int[]> e : endpointUsage.entrySet()) {
+            int[] u = e.getValue();
+            sb.append(e.getKey()).append(": sent ").append(u[0])
+                    .append(", throttled ").append(u[1])
+                    .append(", 429 ").append(u[2]).append('\n');
+        }
+        for (Map.Entry<String, Integer> e : featureUsage.entrySet()) {
+            sb.append(e.getKey()).append(": ").append(e.getValue()).append(" calls\n");
+        }
+        return sb.toString();
+    }
+}
@@ -13,6 +13,7 @@ import retrofit2.http.Body;
 import retrofit2.http.Field;
 import retrofit2.http.FormUrlEncoded;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
@@ -72,6 +73,14 @@ public interface SoundCloudApi {
             @Path("id") String playlistUrn,
             @Query("limit") int limit
     );
+
+    // the same call for cards that were only scrolled past; RateLimiter classes it as PREFETCH
+    @Headers(RateLimiter.PREFETCH_HEADER + ": 1")
+    @GET("playlists/{id}/tracks")
+    Call<List<Track>> prefetchPlaylistTracks(
+            @Path("id") String playlistUrn,
+            @Query("limit") int limit
+    );
     
     @POST("likes/tracks/{track_urn}")
     Call<Void> likeTrack(@Path("track_urn") String trackUrn);
@@ -92,4 +101,12 @@ public interface SoundCloudApi {
             @Path("track_urn") String trackUrn,
             @Query("secret_token") String secretToken
     );
+
+    // the same call for resolves nobody tapped; RateLimiter classes it as PREFETCH
+    @Headers(RateLimiter.PREFETCH_HEADER + ": 1")
+    @GET("tracks/{track_urn}/streams")
+    Call<com.example.scplayer.models.TrackStream> prefetchTrackStreams(
+            @Path("track_urn") String trackUrn,
+            @Query("secret_token") String secretToken
+    );
 }
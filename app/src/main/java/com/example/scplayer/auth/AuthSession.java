@@ -0,0 +1,62 @@
+package com.example.scplayer.auth;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.example.scplayer.models.AccessToken;
+import com.example.scplayer.utils.ApiConstants;
+
+// in-memory copy of the stored token. prefs are read once per process, after that routing,
+// the auth interceptor and every AuthManager answer from memory
+public class AuthSession {
+    private static AuthSession instance;
+
+    private final SharedPreferences prefs;
+    private volatile String accessToken;
+    private volatile long expiry;
+
+    private AuthSession(Context context) {
+        prefs = context.getApplicationContext()
+                .getSharedPreferences(ApiConstants.PREFS_NAME, Context.MODE_PRIVATE);
+        accessToken = prefs.getString(ApiConstants.KEY_ACCESS_TOKEN, null);
+        expiry = prefs.getLong(ApiConstants.KEY_TOKEN_EXPIRY, 0);
+    }
+
+    public static synchronized AuthSession getInstance(Context context) {
+        if (instance == null) {
+            instance = new AuthSession(context);
+        }
+        return instance;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public boolean isTokenExpired() {
+        return System.currentTimeMillis() >= expiry;
+    }
+
+    public boolean isLoggedIn() {
+        return accessToken != null && !isTokenExpired();
+    }
+
+    // memory first so a screen started right after login sees the token before apply() lands
+    synchronized void save(AccessToken token) {
+        long newExpiry = System.currentTimeMillis() + (token.getExpiresIn() * 1000);
+        accessToken = token.getAccessToken();
+        expiry = newExpiry;
+
+        prefs.edit()
+                .putString(ApiConstants.KEY_ACCESS_TOKEN, token.getAccessToken())
+                .putString(ApiConstants.KEY_REFRESH_TOKEN, token.getRefreshToken())
+                .putLong(ApiConstants.KEY_TOKEN_EXPIRY, newExpiry)
+                .apply();
+    }
+
+    synchronized void clear() {
+        accessToken = null;
+        expiry = 0;
+        prefs.edit().clear().apply();
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.scplayer.data;
+
+import android.content.Context;
+
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.api.ApiFutures;
+import com.example.scplayer.api.CallRegistry;
+import com.example.scplayer.api.SoundCloudApi;
+import com.example.scplayer.models.Playlist;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.utils.AppExecutors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// assembles the home cards from related tracks of the most recent likes. each like's related
+// tracks are kept for a while, so a refresh only asks about likes it hasn't seen yet (or whose
+// results went stale) and the rest is re-ranked locally
+public class HomeFeed {
+    private static final long SEED_TTL_MS = 6 * 60 * 60 * 1000;
+    private static final int SEED_CACHE_SIZE = 32;
+
+    private static HomeFeed instance;
+
+    private final SoundCloudApi api;
+    private final LibraryStore store;
+    // seed track id -> its related tracks, most recently used last
+    private final Map<Long, SeedResult> seeds = new LinkedHashMap<Long, SeedResult>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, SeedResult> eldest) {
+            return size() > SEED_CACHE_SIZE;
+        }
+    };
+
+    private static class SeedResult {
+        final Track seed;
+        final List<Track> related;
+        final long fetchedAt;
+
+        SeedResult(Track seed, List<Track> related, long fetchedAt) {
+            this.seed = seed;
+            this.related = related;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private HomeFeed(Context context) {
+        this.api = ApiClient.getSoundCloudApi();
+        this.store = LibraryStore.getInstance(context);
+    }
+
+    public static synchronized HomeFeed getInstance(Context context) {
+        if (instance == null) {
+            instance = new HomeFeed(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // the finished cards, built on the data thread. null when the api says there are no likes,
+    // empty when none of the likes had anything related. fails when the likes couldn't be loaded
+    // and none are stored, so an offline start isn't taken for an empty account
+    public CompletableFuture<List<Playlist>> refresh(CallRegistry calls) {
+        // stored likes fill in when the network can't say what's recent, and are filtered out either way
+        CompletableFuture<List<Long>> storedIds = CompletableFuture.supplyAsync(
+                store::getLikedTrackIds, AppExecutors.background());
+        CompletableFuture<List<Track>> recent = ApiFutures.orElse(ApiFutures.withTimeout(
+                ApiFutures.call(calls, api.getLikedTracks(ApiConstants.HOME_FEED_SEEDS, 0)),
+                ApiConstants.REQUEST_TIMEOUT_MS), null);
+
+        return recent.thenCombineAsync(storedIds, (network, stored) -> {
+            List<Track> seedTracks = network != null ? network : storedSeeds(stored);
+            if (network == null && seedTracks.isEmpty()) {
+                throw new CompletionException(new IOException("Liked tracks could not be loaded"));
+            }
+            Set<Long> liked = new HashSet<>(stored);
+            for (Track t : seedTracks) {
+                liked.add(t.getId());
+            }
+            return new Seeds(seedTracks, liked);
+        }, AppExecutors.background()).thenCompose(s -> {
+            if (s.tracks.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return fetchRelated(calls, s.tracks).thenApplyAsync(results -> {
+                // every seed failed and nothing was cached: that's an error, not an empty feed
+                if (Collections.frequency(results, null) == results.size()) {
+                    throw new CompletionException(new IOException("No related tracks could be loaded"));
+                }
+                return assemble(results, s.liked);
+            }, AppExecutors.data());
+        });
+    }
+
+    public synchronized void clear() {
+        seeds.clear();
+    }
+
+    private static class Seeds {
+        final List<Track> tracks;
+        final Set<Long> liked;
+
+        Seeds(List<Track> tracks, Set<Long> liked) {
+            this.tracks = tracks;
+            this.liked = liked;
+        }
+    }
+
+    // only ids are stored locally; cached results still know their seed track
+    private List<Track> storedSeeds(List<Long> storedIds) {
+        List<Track> result = new ArrayList<>();
+        TrackList likedTracks = null;
+        for (int i = 0; i < Math.min(ApiConstants.HOME_FEED_SEEDS, storedIds.size()); i++) {
+            SeedResult cached = cachedSeed(storedIds.get(i));
+            if (cached != null) {
+                result.add(cached.seed);
+                continue;
+            }
+            if (likedTracks == null) {
+                likedTracks = store.getLikedTracks();
+            }
+            if (i < likedTracks.size()) {
+                result.add(likedTracks.get(i));
+            }
+        }
+        return result;
+    }
+
+    // fresh seeds come from the cache; the others are asked for in a few parallel lanes,
+    // each lane running its requests one after another. a failed seed is just left out
+    private CompletableFuture<List<SeedResult>> fetchRelated(CallRegistry calls, List<Track> seedTracks) {
+        long now = System.currentTimeMillis();
+        List<CompletableFuture<SeedResult>> results = new ArrayList<>(seedTracks.size());
+        List<CompletableFuture<?>> lanes = new ArrayList<>();
+        int fetches = 0;
+
+        for (Track seed : seedTracks) {
+            SeedResult cached = cachedSeed(seed.getId());
+            if (cached != null && now - cached.fetchedAt < SEED_TTL_MS) {
+                results.add(CompletableFuture.completedFuture(cached));
+                continue;
+            }
+
+            int lane = fetches++ % ApiConstants.HOME_FEED_PARALLELISM;
+            CompletableFuture<?> previous = lane < lanes.size()
+                    ? lanes.get(lane)
+                    : CompletableFuture.completedFuture(null);
+            CompletableFuture<SeedResult> fetched = previous
+                    .handle((ignored, error) -> null)
+                    .thenCompose(ignored -> fetchSeed(calls, seed, cached));
+            if (lane < lanes.size()) {
+                lanes.set(lane, fetched);
+            } else {
+                lanes.add(fetched);
+            }
+            results.add(fetched);
+        }
+        return ApiFutures.allOf(results);
+    }
+
+    private CompletableFuture<SeedResult> fetchSeed(CallRegistry calls, Track seed, SeedResult stale) {
+        if (!calls.isActive()) {
+            return CompletableFuture.completedFuture(stale);
+        }
+        String urn = "soundcloud:tracks:" + seed.getId();
+        CompletableFuture<SeedResult> fetched = ApiFutures.withTimeout(ApiFutures.call(calls,
+                        api.getRelatedTracks(urn, "playable,preview", ApiConstants.HOME_FEED_RELATED_LIMIT, true)),
+                ApiConstants.REQUEST_TIMEOUT_MS)
+                .thenApply(res -> {
+                    List<Track> related = res.getCollection() != null ? res.getCollection() : new ArrayList<>();
+                    SeedResult result = new SeedResult(seed, related, System.currentTimeMillis());
+                    synchronized (this) {
+                        seeds.put(seed.getId(), result);
+                    }
+                    return result;
+                });
+        // a stale copy is still better than leaving the seed out
+        return ApiFutures.orElse(fetched, stale);
+    }
+
+    private synchronized SeedResult cachedSeed(long seedId) {
+        return seeds.get(seedId);
+    }
+
+    // a track's score adds up over every like it's related to, weighted by how recent the like is
+    // and how high the track sits in that like's list. liked tracks (seeds included) are left out
+    private static List<Playlist> assemble(List<SeedResult> results, Set<Long> liked) {
+        Map<Long, Track> byId = new HashMap<>();
+        Map<Long, Double> scores = new HashMap<>();
+        List<Playlist> seedCards = new ArrayList<>();
+
+        for (int s = 0; s < results.size(); s++) {
+            SeedResult result = results.get(s);
+            if (result == null) continue;
+
+            double seedWeight = 1.0 / (s + 1);
+            List<Track> fresh = new ArrayList<>();
+            for (int i = 0; i < result.related.size(); i++) {
+                Track t = result.related.get(i);
+                if (liked.contains(t.getId())) continue;
+
+                fresh.add(t);
+                double positionWeight = 1.0 - (double) i / result.related.size();
+                Double previous = scores.get(t.getId());
+                scores.put(t.getId(), (previous != null ? previous : 0) + seedWeight * positionWeight);
+                byId.put(t.getId(), t);
+            }
+            if (fresh.size() >= ApiConstants.HOME_FEED_MIN_CARD_TRACKS) {
+                seedCards.add(card(ApiConstants.RELATED_SEED_PLAYLIST_BASE_ID - seedCards.size(),
+                        "More like " + result.seed.getTitle(), fresh));
+            }
+        }
+
+        if (byId.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> ranked = new ArrayList<>(byId.keySet());
+        Collections.sort(ranked, (a, b) -> Double.compare(scores.get(b), scores.get(a)));
+        List<Track> mix = new ArrayList<>(Math.min(ranked.size(), ApiConstants.HOME_FEED_MIX_SIZE));
+        for (int i = 0; i < ranked.size() && i < ApiConstants.HOME_FEED_MIX_SIZE; i++) {
+            mix.add(byId.get(ranked.get(i)));
+        }
+
+        List<Playlist> cards = new ArrayList<>(seedCards.size() + 1);
+        cards.add(card(ApiConstants.RELATED_TRACKS_PLAYLIST_ID, "Related", mix));
+        cards.addAll(seedCards);
+        return Collections.unmodifiableList(cards);
+    }
+
+    private static Playlist card(long id, String title, List<Track> tracks) {
+        Playlist p = new Playlist();
+        p.setId(id);
+        p.setTitle(title);
+        // interned here so opening the card doesn't copy the tracks on the main thread
+        TrackList list = TrackList.of(tracks);
+        p.setTracks(list);
+        p.setTrackCount(list.size());
+        // artwork of the first track that has any
+        for (int i = 0; i < list.size(); i++) {
+            if (list.getArtworkUrl(i) != null) {
+                p.setArtworkUrl(list.getArtworkUrl(i));
+                break;
+            }
+        }
+        return p;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.scplayer.data;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+public class LibraryDatabase extends SQLiteOpenHelper {
+    private static final String NAME = "library.db";
+    private static final int VERSION = 2;
+
+    static final String USERS = "users";
+    static final String TRACKS = "tracks";
+    static final String PLAYLISTS = "playlists";
+    static final String PLAYLIST_TRACKS = "playlist_tracks";
+    static final String LIKES = "likes";
+    // local listening history, feeds the audio precache policy
+    static final String PLAYS = "plays";
+    static final String PLAYLIST_OPENS = "playlist_opens";
+
+    private final Context context;
+
+    public LibraryDatabase(Context context) {
+        this(context, NAME);
+    }
+
+    // a separate file, so tests never touch the user's library
+    LibraryDatabase(Context context, String name) {
+        super(context.getApplicationContext(), name, null, VERSION);
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        db.enableWriteAheadLogging();
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + USERS + " ("
+                + "id INTEGER PRIMARY KEY, "
+                + "username TEXT)");
+
+        db.execSQL("CREATE TABLE " + TRACKS + " ("
+                + "id INTEGER PRIMARY KEY, "
+                + "title TEXT, "
+                + "duration INTEGER NOT NULL DEFAULT 0, "
+                + "artwork_url TEXT, "
+                + "permalink_url TEXT, "
+                + "user_id INTEGER)");
+
+        db.execSQL("CREATE TABLE " + PLAYLISTS + " ("
+                + "id INTEGER PRIMARY KEY, "
+                + "urn TEXT, "
+                + "title TEXT, "
+                + "artwork_url TEXT, "
+                + "track_count INTEGER NOT NULL DEFAULT 0, "
+                + "position INTEGER NOT NULL)");
+
+        db.execSQL("CREATE TABLE " + PLAYLIST_TRACKS + " ("
+                + "playlist_id INTEGER NOT NULL, "
+                + "position INTEGER NOT NULL, "
+                + "track_id INTEGER NOT NULL, "
+                + "PRIMARY KEY (playlist_id, position))");
+
+        db.execSQL("CREATE TABLE " + LIKES + " ("
+                + "track_id INTEGER PRIMARY KEY, "
+                + "position INTEGER NOT NULL)");
+
+        db.execSQL("CREATE TABLE " + PLAYS + " ("
+                + "track_id INTEGER PRIMARY KEY, "
+                + "play_count INTEGER NOT NULL DEFAULT 0, "
+                + "last_played INTEGER NOT NULL)");
+
+        db.execSQL("CREATE TABLE " + PLAYLIST_OPENS + " ("
+                + "playlist_id INTEGER PRIMARY KEY, "
+                + "opened_at INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // the store is a cache of the server, rebuilding it is always safe. play history only
+        // steers precaching, losing it costs a few cache misses
+        db.execSQL("DROP TABLE IF EXISTS " + USERS);
+        db.execSQL("DROP TABLE IF EXISTS " + TRACKS);
+        db.execSQL("DROP TABLE IF EXISTS " + PLAYLISTS);
+        db.execSQL("DROP TABLE IF EXISTS " + PLAYLIST_TRACKS);
+        db.execSQL("DROP TABLE IF EXISTS " + LIKES);
+        db.execSQL("DROP TABLE IF EXISTS " + PLAYS);
+        db.execSQL("DROP TABLE IF EXISTS " + PLAYLIST_OPENS);
+        onCreate(db);
+
+        // sync times and the snapshot describe the data that was just dropped. left alone, a fresh
+        // sync time would make the empty store look current until its ttl ran out
+        RefreshCoordinator.getInstance(context).clear();
+        LibrarySnapshot.getInstance(context).clear();
+    }
+}
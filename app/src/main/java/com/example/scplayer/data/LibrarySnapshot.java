@@ -0,0 +1,278 @@
+package com.example.scplayer.data;
+
+import android.content.Context;
+
+import com.example.scplayer.models.Playlist;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.models.User;
+import com.example.scplayer.utils.AppExecutors;
+import com.example.scplayer.utils.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// compact binary copy of what the first library/home frame needs, read through a memory map on launch.
+// layout: magic, version, library cards, liked count + liked head, home cards with their tracks
+public class LibrarySnapshot {
+    private static final Logger log = Logger.get(Logger.Subsystem.LIBRARY, "LibrarySnapshot");
+    private static final String FILE_NAME = "library.snapshot";
+    private static final int MAGIC = 0x53435053; // "SCPS"
+    private static final int VERSION = 1;
+    public static final int LIKED_HEAD_SIZE = 20;
+
+    private static LibrarySnapshot instance;
+
+    private final File file;
+    private final Object writeLock = new Object();
+    private Data data;
+
+    public static class Data {
+        public final List<Playlist> libraryCards;
+        public final int likedCount;
+        public final List<Track> likedHead;
+        public final List<Playlist> homeCards;
+
+        Data(List<Playlist> libraryCards, int likedCount, List<Track> likedHead, List<Playlist> homeCards) {
+            this.libraryCards = libraryCards;
+            this.likedCount = likedCount;
+            this.likedHead = likedHead;
+            this.homeCards = homeCards;
+        }
+
+        static Data empty() {
+            return new Data(Collections.emptyList(), 0, Collections.emptyList(), Collections.emptyList());
+        }
+    }
+
+    private LibrarySnapshot(Context context) {
+        this(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+    }
+
+    // a snapshot in another file, for tests
+    LibrarySnapshot(File file) {
+        this.file = file;
+    }
+
+    public static synchronized LibrarySnapshot getInstance(Context context) {
+        if (instance == null) {
+            instance = new LibrarySnapshot(context);
+        }
+        return instance;
+    }
+
+    // cheap enough for the main thread: one small mapped file, parsed once per process
+    public synchronized Data read() {
+        if (data == null) {
+            data = readFile();
+        }
+        return data;
+    }
+
+    public synchronized void updateLibrary(List<Playlist> libraryCards, List<Track> liked) {
+        Data current = read();
+        int headSize = Math.min(LIKED_HEAD_SIZE, liked.size());
+        List<Track> head = liked instanceof TrackList
+                ? ((TrackList) liked).head(headSize)
+                : new ArrayList<>(liked.subList(0, headSize));
+        data = new Data(new ArrayList<>(libraryCards), liked.size(), head, current.homeCards);
+        scheduleWrite(data);
+    }
+
+    public synchronized void updateHome(List<Playlist> homeCards) {
+        Data current = read();
+        data = new Data(current.libraryCards, current.likedCount, current.likedHead, new ArrayList<>(homeCards));
+        scheduleWrite(data);
+    }
+
+    public synchronized void clear() {
+        data = Data.empty();
+        if (file.exists() && !file.delete()) {
+            log.w(() -> "Could not delete snapshot");
+        }
+    }
+
+    private void scheduleWrite(Data snapshot) {
+        AppExecutors.background().execute(() -> {
+            synchronized (writeLock) {
+                synchronized (this) {
+                    // a newer update will write its own copy
+                    if (snapshot != data) return;
+                }
+                writeFile(snapshot);
+            }
+        });
+    }
+
+    // write to a temp file and rename over the old one so a reader never sees a partial file
+    void writeFile(Data snapshot) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            writePlaylists(out, snapshot.libraryCards, false);
+            out.writeInt(snapshot.likedCount);
+            writeTracks(out, snapshot.likedHead);
+            writePlaylists(out, snapshot.homeCards, true);
+
+            out.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            log.w(() -> "Snapshot write failed", e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            log.w(() -> "Snapshot rename failed");
+            tmp.delete();
+        }
+    }
+
+    // uncached, also used by the cold-start benchmark
+    Data readFile() {
+        if (!file.exists()) return Data.empty();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                return Data.empty();
+            }
+
+            Map<Long, User> users = new HashMap<>();
+            List<Playlist> libraryCards = readPlaylists(buf, users, false);
+            int likedCount = buf.getInt();
+            List<Track> likedHead = readTracks(buf, users);
+            List<Playlist> homeCards = readPlaylists(buf, users, true);
+            return new Data(libraryCards, likedCount, likedHead, homeCards);
+        } catch (IOException | RuntimeException e) {
+            // truncated or from an older layout; the store and sync fill in
+            log.w(() -> "Snapshot read failed", e);
+            return Data.empty();
+        }
+    }
+
+    private static void writePlaylists(DataOutputStream out, List<Playlist> playlists, boolean withTracks) throws IOException {
+        out.writeInt(playlists.size());
+        for (Playlist p : playlists) {
+            out.writeLong(p.getId());
+            writeString(out, p.getUrn());
+            writeString(out, p.getTitle());
+            writeString(out, p.getArtworkUrl());
+            out.writeInt(p.getTrackCount());
+            if (withTracks) {
+                writeTracks(out, p.getTracks() != null ? p.getTracks() : Collections.emptyList());
+            }
+        }
+    }
+
+    private static List<Playlist> readPlaylists(ByteBuffer buf, Map<Long, User> users, boolean withTracks) {
+        int count = buf.getInt();
+        List<Playlist> playlists = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Playlist p = new Playlist();
+            p.setId(buf.getLong());
+            p.setUrn(readString(buf));
+            p.setTitle(readString(buf));
+            p.setArtworkUrl(readString(buf));
+            p.setTrackCount(buf.getInt());
+            if (withTracks) {
+                p.setTracks(readTracks(buf, users));
+            }
+            playlists.add(p);
+        }
+        return playlists;
+    }
+
+    private static void writeTracks(DataOutputStream out, List<Track> tracks) throws IOException {
+        if (tracks instanceof TrackList) {
+            writeTracks(out, (TrackList) tracks);
+            return;
+        }
+        out.writeInt(tracks.size());
+        for (Track t : tracks) {
+            out.writeLong(t.getId());
+            writeString(out, t.getTitle());
+            out.writeLong(t.getDuration());
+            writeString(out, t.getArtworkUrl());
+            writeString(out, t.getPermalinkUrl());
+            User user = t.getUser();
+            out.writeLong(user != null ? user.getId() : -1);
+            writeString(out, user != null ? user.getUsername() : null);
+        }
+    }
+
+    // the same layout, read straight from the table columns
+    private static void writeTracks(DataOutputStream out, TrackList tracks) throws IOException {
+        out.writeInt(tracks.size());
+        for (int i = 0; i < tracks.size(); i++) {
+            out.writeLong(tracks.getId(i));
+            writeString(out, tracks.getTitle(i));
+            out.writeLong(tracks.getDuration(i));
+            writeString(out, tracks.getArtworkUrl(i));
+            writeString(out, tracks.getPermalinkUrl(i));
+            User user = tracks.getUser(i);
+            out.writeLong(user != null ? user.getId() : -1);
+            writeString(out, user != null ? user.getUsername() : null);
+        }
+    }
+
+    private static List<Track> readTracks(ByteBuffer buf, Map<Long, User> users) {
+        int count = buf.getInt();
+        List<Track> tracks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Track t = new Track();
+            t.setId(buf.getLong());
+            t.setTitle(readString(buf));
+            t.setDuration(buf.getLong());
+            t.setArtworkUrl(readString(buf));
+            t.setPermalinkUrl(readString(buf));
+            long userId = buf.getLong();
+            String username = readString(buf);
+            if (userId >= 0) {
+                User user = users.get(userId);
+                if (user == null) {
+                    user = new User();
+                    user.setId(userId);
+                    user.setUsername(username);
+                    users.put(userId, user);
+                }
+                t.setUser(user);
+            }
+            tracks.add(t);
+        }
+        return tracks;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
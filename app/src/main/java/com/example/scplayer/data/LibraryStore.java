@@ -0,0 +1,331 @@
+package com.example.scplayer.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.scplayer.models.Playlist;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.models.User;
+import com.example.scplayer.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+// local copy of the user's library; reads and writes are blocking, use loadAsync from the ui
+public class LibraryStore {
+    private static final String TRACK_COLUMNS =
+            "t.id, t.title, t.duration, t.artwork_url, t.permalink_url, t.user_id, u.username";
+
+    private static LibraryStore instance;
+    private final LibraryDatabase helper;
+
+    public interface LoadCallback<T> {
+        void onLoaded(T data);
+    }
+
+    public static class Library {
+        public final List<Track> liked;
+        public final List<Playlist> playlists;
+
+        Library(List<Track> liked, List<Playlist> playlists) {
+            this.liked = liked;
+            this.playlists = playlists;
+        }
+    }
+
+    private LibraryStore(Context context) {
+        helper = new LibraryDatabase(context);
+    }
+
+    // a store over its own database file, for tests
+    LibraryStore(Context context, String databaseName) {
+        helper = new LibraryDatabase(context, databaseName);
+    }
+
+    void close() {
+        helper.close();
+    }
+
+    public static synchronized LibraryStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new LibraryStore(context);
+        }
+        return instance;
+    }
+
+    public <T> void loadAsync(Callable<T> query, LoadCallback<T> callback) {
+        AppExecutors.background().execute(() -> {
+            T data;
+            try {
+                data = query.call();
+            } catch (Exception e) {
+                data = null;
+            }
+            T result = data;
+            AppExecutors.main().execute(() -> callback.onLoaded(result));
+        });
+    }
+
+    // writes run one at a time, in submission order
+    public void runAsync(Runnable write) {
+        AppExecutors.storeWrites().execute(write);
+    }
+
+    // opens the database (and runs any upgrade) before the first screen needs it
+    public void warmUp() {
+        helper.getReadableDatabase();
+    }
+
+    public Library getLibrary() {
+        return new Library(getLikedTracks(), getPlaylists());
+    }
+
+    // likes
+
+    public TrackList getLikedTracks() {
+        return queryTracks("SELECT " + TRACK_COLUMNS + " FROM " + LibraryDatabase.LIKES + " l"
+                + " JOIN " + LibraryDatabase.TRACKS + " t ON t.id = l.track_id"
+                + " LEFT JOIN " + LibraryDatabase.USERS + " u ON u.id = t.user_id"
+                + " ORDER BY l.position", null);
+    }
+
+    public void replaceLikedTracks(List<Track> tracks) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(LibraryDatabase.LIKES, null, null);
+            ContentValues values = new ContentValues();
+            for (int i = 0; i < tracks.size(); i++) {
+                Track track = tracks.get(i);
+                putTrack(db, track);
+                values.clear();
+                values.put("track_id", track.getId());
+                values.put("position", i);
+                db.insertWithOnConflict(LibraryDatabase.LIKES, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // newest like goes first, same as the api order
+    public void addLikedTrack(Track track) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            putTrack(db, track);
+            long first = 0;
+            try (Cursor c = db.rawQuery("SELECT MIN(position) FROM " + LibraryDatabase.LIKES, null)) {
+                if (c.moveToFirst() && !c.isNull(0)) {
+                    first = c.getLong(0);
+                }
+            }
+            ContentValues values = new ContentValues();
+            values.put("track_id", track.getId());
+            values.put("position", first - 1);
+            db.insertWithOnConflict(LibraryDatabase.LIKES, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void removeLikedTrack(long trackId) {
+        helper.getWritableDatabase().delete(LibraryDatabase.LIKES, "track_id = ?",
+                new String[]{String.valueOf(trackId)});
+    }
+
+    public List<Long> getLikedTrackIds() {
+        List<Long> ids = new ArrayList<>();
+        try (Cursor c = helper.getReadableDatabase().rawQuery(
+                "SELECT track_id FROM " + LibraryDatabase.LIKES + " ORDER BY position", null)) {
+            while (c.moveToNext()) {
+                ids.add(c.getLong(0));
+            }
+        }
+        return ids;
+    }
+
+    // playlists
+
+    public List<Playlist> getPlaylists() {
+        List<Playlist> playlists = new ArrayList<>();
+        try (Cursor c = helper.getReadableDatabase().rawQuery(
+                "SELECT id, urn, title, artwork_url, track_count FROM " + LibraryDatabase.PLAYLISTS
+                        + " ORDER BY position", null)) {
+            while (c.moveToNext()) {
+                Playlist p = new Playlist();
+                p.setId(c.getLong(0));
+                p.setUrn(c.getString(1));
+                p.setTitle(c.getString(2));
+                p.setArtworkUrl(c.getString(3));
+                p.setTrackCount(c.getInt(4));
+                playlists.add(p);
+            }
+        }
+        return playlists;
+    }
+
+    public void replacePlaylists(List<Playlist> playlists) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(LibraryDatabase.PLAYLISTS, null, null);
+            ContentValues values = new ContentValues();
+            for (int i = 0; i < playlists.size(); i++) {
+                Playlist p = playlists.get(i);
+                values.clear();
+                values.put("id", p.getId());
+                values.put("urn", p.getUrn());
+                values.put("title", p.getTitle());
+                values.put("artwork_url", p.getArtworkUrl());
+                values.put("track_count", p.getTrackCount());
+                values.put("position", i);
+                db.insertWithOnConflict(LibraryDatabase.PLAYLISTS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            // drop contents of playlists the user no longer has
+            db.execSQL("DELETE FROM " + LibraryDatabase.PLAYLIST_TRACKS + " WHERE playlist_id >= 0"
+                    + " AND playlist_id NOT IN (SELECT id FROM " + LibraryDatabase.PLAYLISTS + ")");
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public TrackList getPlaylistTracks(long playlistId) {
+        return queryTracks("SELECT " + TRACK_COLUMNS + " FROM " + LibraryDatabase.PLAYLIST_TRACKS + " pt"
+                + " JOIN " + LibraryDatabase.TRACKS + " t ON t.id = pt.track_id"
+                + " LEFT JOIN " + LibraryDatabase.USERS + " u ON u.id = t.user_id"
+                + " WHERE pt.playlist_id = ?"
+                + " ORDER BY pt.position", new String[]{String.valueOf(playlistId)});
+    }
+
+    public void replacePlaylistTracks(long playlistId, List<Track> tracks) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(LibraryDatabase.PLAYLIST_TRACKS, "playlist_id = ?", new String[]{String.valueOf(playlistId)});
+            ContentValues values = new ContentValues();
+            for (int i = 0; i < tracks.size(); i++) {
+                Track track = tracks.get(i);
+                putTrack(db, track);
+                values.clear();
+                values.put("playlist_id", playlistId);
+                values.put("position", i);
+                values.put("track_id", track.getId());
+                db.insertWithOnConflict(LibraryDatabase.PLAYLIST_TRACKS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // history
+
+    // sqlite on older devices has no upsert, so update first and insert when nothing was there
+    public void recordPlay(long trackId) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        long now = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            db.execSQL("UPDATE " + LibraryDatabase.PLAYS
+                    + " SET play_count = play_count + 1, last_played = ? WHERE track_id = ?", new Object[]{now, trackId});
+            ContentValues values = new ContentValues();
+            values.put("track_id", trackId);
+            values.put("play_count", 1);
+            values.put("last_played", now);
+            db.insertWithOnConflict(LibraryDatabase.PLAYS, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // most played first, recent plays break ties
+    public List<Long> getMostPlayedTrackIds(int limit) {
+        return queryIds("SELECT track_id FROM " + LibraryDatabase.PLAYS
+                + " ORDER BY play_count DESC, last_played DESC LIMIT " + limit);
+    }
+
+    public void recordPlaylistOpen(long playlistId) {
+        ContentValues values = new ContentValues();
+        values.put("playlist_id", playlistId);
+        values.put("opened_at", System.currentTimeMillis());
+        helper.getWritableDatabase().insertWithOnConflict(LibraryDatabase.PLAYLIST_OPENS, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    public List<Long> getRecentlyOpenedPlaylistIds(int limit) {
+        return queryIds("SELECT playlist_id FROM " + LibraryDatabase.PLAYLIST_OPENS
+                + " ORDER BY opened_at DESC LIMIT " + limit);
+    }
+
+    public void clear() {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(LibraryDatabase.LIKES, null, null);
+            db.delete(LibraryDatabase.PLAYLIST_TRACKS, null, null);
+            db.delete(LibraryDatabase.PLAYLISTS, null, null);
+            db.delete(LibraryDatabase.TRACKS, null, null);
+            db.delete(LibraryDatabase.USERS, null, null);
+            db.delete(LibraryDatabase.PLAYS, null, null);
+            db.delete(LibraryDatabase.PLAYLIST_OPENS, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void putTrack(SQLiteDatabase db, Track track) {
+        ContentValues values = new ContentValues();
+        User user = track.getUser();
+        if (user != null) {
+            values.put("id", user.getId());
+            values.put("username", user.getUsername());
+            db.insertWithOnConflict(LibraryDatabase.USERS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            values.clear();
+        }
+
+        values.put("id", track.getId());
+        values.put("title", track.getTitle());
+        values.put("duration", track.getDuration());
+        values.put("artwork_url", track.getArtworkUrl());
+        values.put("permalink_url", track.getPermalinkUrl());
+        if (user != null) {
+            values.put("user_id", user.getId());
+        } else {
+            values.putNull("user_id");
+        }
+        db.insertWithOnConflict(LibraryDatabase.TRACKS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    private List<Long> queryIds(String sql) {
+        List<Long> ids = new ArrayList<>();
+        try (Cursor c = helper.getReadableDatabase().rawQuery(sql, null)) {
+            while (c.moveToNext()) {
+                ids.add(c.getLong(0));
+            }
+        }
+        return ids;
+    }
+
+    // rows go straight into the track table, no Track objects per row
+    private TrackList queryTracks(String sql, String[] args) {
+        TrackTable table = TrackTable.getInstance();
+        try (Cursor c = helper.getReadableDatabase().rawQuery(sql, args)) {
+            int[] rows = new int[c.getCount()];
+            int i = 0;
+            while (c.moveToNext()) {
+                rows[i++] = table.put(c.getLong(0), c.getString(1), c.getLong(2), c.getString(3),
+                        c.getString(4), c.isNull(5) ? TrackTable.NO_USER : c.getLong(5), c.getString(6));
+            }
+            return table.adopt(rows);
+        }
+    }
+}
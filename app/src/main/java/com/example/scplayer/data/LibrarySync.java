@@ -0,0 +1,206 @@
+package com.example.scplayer.data;
+
+import android.content.Context;
+
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.api.ApiFutures;
+import com.example.scplayer.api.CallRegistry;
+import com.example.scplayer.api.SoundCloudApi;
+import com.example.scplayer.models.Playlist;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.utils.AppExecutors;
+import com.example.scplayer.utils.LibraryIndex;
+import com.example.scplayer.utils.Logger;
+import com.example.scplayer.utils.PlaylistManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+// reconciles the local store against the api; the server copy always wins
+public class LibrarySync {
+    private static final Logger log = Logger.get(Logger.Subsystem.LIBRARY, "LibrarySync");
+
+    private final SoundCloudApi api;
+    private final CallRegistry calls;
+    private final LibraryStore store;
+    private final PlaylistRepository repository;
+    private final PlaylistManager playlistManager;
+
+    // null means that part failed and the stored copy is still the best we have
+    public interface LibraryCallback {
+        void onSynced(List<Track> liked, List<Playlist> playlists);
+    }
+
+    public interface TracksCallback {
+        void onSynced(List<Track> tracks);
+        void onError(String error);
+    }
+
+    public LibrarySync(Context context, CallRegistry calls) {
+        this.api = ApiClient.getSoundCloudApi();
+        this.calls = calls;
+        this.store = LibraryStore.getInstance(context);
+        this.repository = PlaylistRepository.getInstance(context);
+        this.playlistManager = new PlaylistManager(api, calls);
+    }
+
+    public void syncLibrary(LibraryCallback callback) {
+        calls.enqueue(api.getLikedTracks(ApiConstants.MAX_LIKED_TRACKS, 0), new Callback<List<Track>>() {
+            @Override
+            public void onResponse(Call<List<Track>> call, Response<List<Track>> res) {
+                List<Track> liked = null;
+                if (res.isSuccessful() && res.body() != null) {
+                    liked = res.body();
+                    List<Track> saved = liked;
+                    AppExecutors.data().execute(() -> saveLikedTracks(saved));
+                }
+                syncPlaylists(liked, callback);
+            }
+
+            @Override
+            public void onFailure(Call<List<Track>> call, Throwable t) {
+                log.d(() -> "Liked tracks sync failed: " + t.getMessage());
+                syncPlaylists(null, callback);
+            }
+        });
+    }
+
+    public void syncPlaylistTracks(Playlist playlist, TracksCallback callback) {
+        syncPlaylistTracks(playlist, api.getPlaylistTracks(playlist.getUrn(), ApiConstants.PLAYLIST_TRACKS_LIMIT), callback);
+    }
+
+    // the same for a playlist nobody opened yet; rate limited as a prefetch, not as browsing
+    public void prefetchPlaylistTracks(Playlist playlist, TracksCallback callback) {
+        syncPlaylistTracks(playlist, api.prefetchPlaylistTracks(playlist.getUrn(), ApiConstants.PLAYLIST_TRACKS_LIMIT), callback);
+    }
+
+    private void syncPlaylistTracks(Playlist playlist, Call<List<Track>> request, TracksCallback callback) {
+        calls.enqueue(request, new Callback<List<Track>>() {
+            @Override
+            public void onResponse(Call<List<Track>> call, Response<List<Track>> res) {
+                if (res.isSuccessful() && res.body() != null) {
+                    List<Track> tracks = res.body();
+                    // indexing and the table copy happen on the data thread, the callback gets the stored view
+                    AppExecutors.data().execute(() -> {
+                        LibraryIndex.getInstance().replaceSource(LibraryIndex.playlistSource(playlist.getUrn()), tracks);
+                        repository.putTracks(playlist.getId(), tracks);
+                        TrackList stored = repository.getCachedTracks(playlist.getId());
+                        AppExecutors.main().execute(() -> {
+                            if (calls.isActive()) {
+                                callback.onSynced(stored != null ? stored : tracks);
+                            }
+                        });
+                    });
+                } else {
+                    callback.onError("Failed to load tracks: " + res.code());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<List<Track>> call, Throwable t) {
+                callback.onError("Error: " + t.getMessage());
+            }
+        });
+    }
+
+    public void saveLikedTracks(List<Track> liked) {
+        LibraryIndex.getInstance().replaceSource(LibraryIndex.SOURCE_LIKES, liked);
+        repository.putTracks(ApiConstants.LIKED_SONGS_PLAYLIST_ID, liked);
+        store.runAsync(() -> store.replaceLikedTracks(liked));
+    }
+
+    private void syncPlaylists(List<Track> liked, LibraryCallback callback) {
+        playlistManager.loadUserPlaylists(new PlaylistManager.PlaylistsLoadCallback() {
+            @Override
+            public void onPlaylistsLoaded(List<Playlist> playlists) {
+                store.loadAsync(() -> reuseArtwork(playlists, store.getPlaylists()), ignored -> {
+                    fetchArtwork(playlists, () -> {
+                        store.runAsync(() -> store.replacePlaylists(playlists));
+                        AppExecutors.data().execute(() -> releaseRemovedPlaylists(playlists));
+                        callback.onSynced(liked, playlists);
+                    });
+                });
+            }
+
+            @Override
+            public void onPlaylistsError() {
+                callback.onSynced(liked, null);
+            }
+        });
+    }
+
+    // playlists gone from the library stop matching in library search
+    private static void releaseRemovedPlaylists(List<Playlist> playlists) {
+        List<String> urns = new ArrayList<>();
+        for (Playlist p : playlists) {
+            if (p.getUrn() != null) {
+                urns.add(p.getUrn());
+            }
+        }
+        LibraryIndex.getInstance().retainPlaylistSources(urns);
+    }
+
+    // artwork resolved on an earlier sync doesn't need another lookup. runs with the store read
+    private static List<Playlist> reuseArtwork(List<Playlist> playlists, List<Playlist> stored) {
+        Map<Long, String> knownArtwork = new HashMap<>();
+        if (stored != null) {
+            for (Playlist p : stored) {
+                if (p.getArtworkUrl() != null) {
+                    knownArtwork.put(p.getId(), p.getArtworkUrl());
+                }
+            }
+        }
+        for (Playlist p : playlists) {
+            if (p.getArtworkUrl() == null) {
+                p.setArtworkUrl(knownArtwork.get(p.getId()));
+            }
+        }
+        return playlists;
+    }
+
+    // playlists without artwork borrow their first track's. lookups run a few at a time in parallel
+    // lanes; a failed one just leaves that card without artwork
+    private void fetchArtwork(List<Playlist> playlists, Runnable done) {
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        int fetches = 0;
+
+        for (Playlist p : playlists) {
+            if (p.getArtworkUrl() != null || p.getUrn() == null) continue;
+
+            int lane = fetches++ % ApiConstants.ARTWORK_PARALLELISM;
+            CompletableFuture<Void> previous = lane < lanes.size()
+                    ? lanes.get(lane)
+                    : CompletableFuture.completedFuture(null);
+            CompletableFuture<Void> fetched = previous.thenCompose(ignored -> ApiFutures.withTimeout(
+                            ApiFutures.call(calls, api.getPlaylistTracks(p.getUrn(), 1)),
+                            ApiConstants.REQUEST_TIMEOUT_MS)
+                    .handle((tracks, error) -> {
+                        if (tracks != null && !tracks.isEmpty()) {
+                            p.setArtworkUrl(tracks.get(0).getArtworkUrl());
+                        }
+                        return null;
+                    }));
+            if (lane < lanes.size()) {
+                lanes.set(lane, fetched);
+            } else {
+                lanes.add(fetched);
+            }
+            results.add(fetched);
+        }
+
+        if (results.isEmpty()) {
+            done.run();
+            return;
+        }
+        ApiFutures.deliver(ApiFutures.allOf(results), calls, (ignored, error) -> done.run());
+    }
+}
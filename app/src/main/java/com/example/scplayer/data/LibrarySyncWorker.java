@@ -0,0 +1,169 @@
+package com.example.scplayer.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.api.CallRegistry;
+import com.example.scplayer.auth.AuthSession;
+import com.example.scplayer.models.Playlist;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.utils.Logger;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// refreshes the library, changed playlists and the home feed into local storage while the phone
+// is charging on wifi, so screens open on data that's at most a few hours old. only what's stale
+// is fetched, and a failed run is retried with exponential backoff
+public class LibrarySyncWorker extends Worker {
+    private static final Logger log = Logger.get(Logger.Subsystem.LIBRARY, "LibrarySyncWorker");
+    private static final String WORK_NAME = "library-sync";
+    private static final long INTERVAL_HOURS = 6;
+    private static final long FLEX_HOURS = 2;
+    private static final long BACKOFF_MINUTES = 5;
+    private static final long STEP_TIMEOUT_SECONDS = 60;
+
+    public LibrarySyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    // KEEP, so calling this on every start doesn't reset the schedule
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresCharging(true)
+                .setRequiresBatteryNotLow(true)
+                .setRequiresStorageNotLow(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(LibrarySyncWorker.class,
+                INTERVAL_HOURS, TimeUnit.HOURS, FLEX_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_MINUTES, TimeUnit.MINUTES)
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    public static void cancel(Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        // the process may have been started just for this job
+        ApiClient.initialize(context);
+        if (!AuthSession.getInstance(context).isLoggedIn()) {
+            return Result.success();
+        }
+
+        RefreshCoordinator refresh = RefreshCoordinator.getInstance(context);
+        boolean failed = false;
+        try {
+            if (refresh.isStale(RefreshCoordinator.LIBRARY)) {
+                failed |= !syncLibrary(context, refresh);
+            }
+            if (isStopped()) return Result.success();
+
+            if (refresh.isStale(RefreshCoordinator.HOME_RELATED)) {
+                failed |= !syncHome(context, refresh);
+            }
+        } catch (Exception e) {
+            log.w(() -> "Background sync failed: " + e);
+            failed = true;
+        }
+
+        int attempt = getRunAttemptCount();
+        boolean retry = failed;
+        log.i(() -> "Background sync " + (retry ? "failed, attempt " + attempt : "done"));
+        return failed ? Result.retry() : Result.success();
+    }
+
+    // likes and playlists through the usual sync, then the tracks of playlists that changed
+    private boolean syncLibrary(Context context, RefreshCoordinator refresh) throws Exception {
+        LibraryStore store = LibraryStore.getInstance(context);
+        LibrarySync sync = new LibrarySync(context, CallRegistry.unscoped());
+
+        Map<Long, Integer> storedCounts = new HashMap<>();
+        for (Playlist p : store.getPlaylists()) {
+            storedCounts.put(p.getId(), p.getTrackCount());
+        }
+
+        // the sync reports back on the main thread, this worker thread just waits for it
+        CompletableFuture<List<Playlist>> synced = new CompletableFuture<>();
+        boolean[] likedOk = new boolean[1];
+        sync.syncLibrary((liked, playlists) -> {
+            likedOk[0] = liked != null;
+            synced.complete(playlists);
+        });
+        List<Playlist> playlists = synced.get(STEP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (playlists == null || !likedOk[0]) {
+            refresh.markFailed(RefreshCoordinator.LIBRARY);
+            return false;
+        }
+        refresh.markSynced(RefreshCoordinator.LIBRARY);
+
+        boolean ok = true;
+        for (Playlist p : playlists) {
+            if (isStopped()) break;
+            if (p.getUrn() == null) continue;
+
+            String key = RefreshCoordinator.playlistTracks(p.getId());
+            Integer storedCount = storedCounts.get(p.getId());
+            // same size and already stored is most likely the same tracks; that doesn't cost a call
+            boolean changed = storedCount == null || storedCount != p.getTrackCount()
+                    || store.getPlaylistTracks(p.getId()).isEmpty();
+            if (!changed) continue;
+
+            CompletableFuture<Boolean> tracks = new CompletableFuture<>();
+            sync.syncPlaylistTracks(p, new LibrarySync.TracksCallback() {
+                @Override
+                public void onSynced(List<Track> synced) {
+                    tracks.complete(true);
+                }
+
+                @Override
+                public void onError(String error) {
+                    tracks.complete(false);
+                }
+            });
+            if (tracks.get(STEP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                refresh.markSynced(key);
+            } else {
+                refresh.markFailed(key);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    private boolean syncHome(Context context, RefreshCoordinator refresh) {
+        List<Playlist> cards;
+        try {
+            cards = HomeFeed.getInstance(context).refresh(CallRegistry.unscoped())
+                    .get(STEP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            refresh.markFailed(RefreshCoordinator.HOME_RELATED);
+            return false;
+        }
+        if (cards != null && !cards.isEmpty()) {
+            LibrarySnapshot.getInstance(context).updateHome(cards);
+        }
+        refresh.markSynced(RefreshCoordinator.HOME_RELATED);
+        return true;
+    }
+}
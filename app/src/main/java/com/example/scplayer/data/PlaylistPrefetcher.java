@@ -0,0 +1,235 @@
+package com.example.scplayer.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.scplayer.adapters.PlaylistAdapter;
+import com.example.scplayer.api.CallRegistry;
+import com.example.scplayer.models.Playlist;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.utils.AppExecutors;
+import com.example.scplayer.utils.ImageUtils;
+import com.example.scplayer.utils.LibraryIndex;
+import com.example.scplayer.utils.Logger;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// loads the first page of tracks for playlist cards that stay on screen, and warms the thumbnails
+// of the rows they open with, so PlaylistDetailFragment finds everything in PlaylistRepository and
+// renders with the navigation. tracks embedded in the playlist response are used as they are.
+// calls share one budget: a couple at a time and a per-minute quota. main thread only
+public class PlaylistPrefetcher {
+    private static final Logger log = Logger.get(Logger.Subsystem.LIBRARY, "PlaylistPrefetcher");
+
+    private static final long DWELL_MS = 500;
+    private static final int MAX_IN_FLIGHT = 2;
+    private static final int QUOTA_PER_WINDOW = 10;
+    private static final long QUOTA_WINDOW_MS = 60_000;
+    // about one screen of the detail list
+    private static final int THUMBNAIL_ROWS = 10;
+
+    private static PlaylistPrefetcher instance;
+
+    private final Context context;
+    private final PlaylistRepository repository;
+    private final RefreshCoordinator refresh;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // keyed by id: a library refresh hands the cards new Playlist objects
+    private final LinkedHashMap<Long, Playlist> queue = new LinkedHashMap<>();
+    private final Set<Long> inFlight = new HashSet<>();
+    // start times of the calls made in the current window
+    private final ArrayDeque<Long> started = new ArrayDeque<>();
+    private final int thumbnailSize;
+    private boolean pumpScheduled;
+
+    private PlaylistPrefetcher(Context context) {
+        this.context = context;
+        repository = PlaylistRepository.getInstance(context);
+        refresh = RefreshCoordinator.getInstance(context);
+        thumbnailSize = ImageUtils.dpToPx(context, ImageUtils.TRACK_THUMBNAIL_DP);
+    }
+
+    public static synchronized PlaylistPrefetcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new PlaylistPrefetcher(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // cards that stay on screen for DWELL_MS are prefetched; a card that leaves before its turn is dropped
+    public void attach(RecyclerView recyclerView) {
+        recyclerView.addOnChildAttachStateChangeListener(new CardWatcher(recyclerView));
+    }
+
+    public void prefetch(Playlist playlist) {
+        List<Track> embedded = playlist.getTracks();
+        if (playlist.getUrn() == null) {
+            // generated cards (liked songs, home mixes) carry their tracks already
+            if (embedded != null) {
+                preloadThumbnails(embedded);
+            }
+            return;
+        }
+        if (adoptEmbedded(playlist)) {
+            preloadThumbnails(embedded);
+            return;
+        }
+
+        long id = playlist.getId();
+        String key = RefreshCoordinator.playlistTracks(id);
+        if (!refresh.isStale(key)) {
+            // fresh on disk; only memory needs filling, which costs no quota
+            if (repository.getCachedTracks(id) == null) {
+                repository.loadTracks(id, this::preloadThumbnails);
+            }
+            return;
+        }
+        if (inFlight.contains(id) || queue.containsKey(id)) return;
+        queue.put(id, playlist);
+        pump();
+    }
+
+    // a playlist response with the complete first page embedded needs no second call. it's stored
+    // like a synced page; indexing waits for the data thread. returns whether the tracks were taken
+    public boolean adoptEmbedded(Playlist playlist) {
+        List<Track> embedded = playlist.getTracks();
+        if (playlist.getUrn() == null || embedded == null || embedded.isEmpty()) return false;
+        if (embedded.size() < Math.min(playlist.getTrackCount(), ApiConstants.PLAYLIST_TRACKS_LIMIT)) return false;
+
+        long id = playlist.getId();
+        String key = RefreshCoordinator.playlistTracks(id);
+        if (repository.getCachedTracks(id) == null || refresh.isStale(key)) {
+            repository.putTracks(id, embedded);
+            refresh.markSynced(key);
+            AppExecutors.data().execute(() -> LibraryIndex.getInstance()
+                    .replaceSource(LibraryIndex.playlistSource(playlist.getUrn()), embedded));
+        }
+        return true;
+    }
+
+    public void clear() {
+        queue.clear();
+        started.clear();
+    }
+
+    private void pump() {
+        long now = SystemClock.elapsedRealtime();
+        while (!started.isEmpty() && now - started.peekFirst() >= QUOTA_WINDOW_MS) {
+            started.pollFirst();
+        }
+
+        while (inFlight.size() < MAX_IN_FLIGHT && !queue.isEmpty()) {
+            if (started.size() >= QUOTA_PER_WINDOW) {
+                // out of quota; try again once the oldest call leaves the window
+                if (!pumpScheduled) {
+                    pumpScheduled = true;
+                    handler.postDelayed(() -> {
+                        pumpScheduled = false;
+                        pump();
+                    }, started.peekFirst() + QUOTA_WINDOW_MS - now);
+                }
+                return;
+            }
+
+            Iterator<Playlist> first = queue.values().iterator();
+            Playlist playlist = first.next();
+            first.remove();
+            // opened (and synced) while it waited
+            if (!refresh.isStale(RefreshCoordinator.playlistTracks(playlist.getId()))) continue;
+            started.addLast(now);
+            inFlight.add(playlist.getId());
+            fetch(playlist);
+        }
+    }
+
+    // no claim on the refresh coordinator: a detail screen opened meanwhile must not wait on a
+    // call it can't see, so it runs its own
+    private void fetch(Playlist playlist) {
+        String key = RefreshCoordinator.playlistTracks(playlist.getId());
+        new LibrarySync(context, CallRegistry.unscoped()).prefetchPlaylistTracks(playlist, new LibrarySync.TracksCallback() {
+            @Override
+            public void onSynced(List<Track> tracks) {
+                refresh.markSynced(key);
+                preloadThumbnails(tracks);
+                done(playlist);
+            }
+
+            @Override
+            public void onError(String error) {
+                log.d(() -> "Prefetch of " + playlist.getId() + " failed: " + error);
+                done(playlist);
+            }
+        });
+    }
+
+    private void done(Playlist playlist) {
+        inFlight.remove(playlist.getId());
+        pump();
+    }
+
+    // the same url and size TrackRow binds, so the detail list hits the memory cache
+    private void preloadThumbnails(List<Track> tracks) {
+        for (int i = 0; i < Math.min(THUMBNAIL_ROWS, tracks.size()); i++) {
+            String url = ImageUtils.getMediumQualityArtworkUrl(tracks.get(i).getArtworkUrl());
+            if (url != null && !url.isEmpty()) {
+                ImageUtils.preloadThumbnail(context, url, thumbnailSize);
+            }
+        }
+    }
+
+    private class CardWatcher implements RecyclerView.OnChildAttachStateChangeListener {
+        private final RecyclerView recyclerView;
+        private final Map<View, Runnable> dwelling = new HashMap<>();
+
+        CardWatcher(RecyclerView recyclerView) {
+            this.recyclerView = recyclerView;
+        }
+
+        @Override
+        public void onChildViewAttachedToWindow(@NonNull View view) {
+            Runnable dwell = () -> {
+                dwelling.remove(view);
+                // the holder may have been rebound since it came on screen
+                Playlist playlist = playlistOf(view);
+                if (playlist != null) {
+                    prefetch(playlist);
+                }
+            };
+            dwelling.put(view, dwell);
+            handler.postDelayed(dwell, DWELL_MS);
+        }
+
+        @Override
+        public void onChildViewDetachedFromWindow(@NonNull View view) {
+            Runnable dwell = dwelling.remove(view);
+            if (dwell != null) {
+                handler.removeCallbacks(dwell);
+                return;
+            }
+            Playlist playlist = playlistOf(view);
+            if (playlist != null) {
+                queue.remove(playlist.getId());
+            }
+        }
+
+        private Playlist playlistOf(View view) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(view);
+            if (holder == null || !(holder.getBindingAdapter() instanceof PlaylistAdapter)) return null;
+            return ((PlaylistAdapter) holder.getBindingAdapter()).getPlaylist(holder.getBindingAdapterPosition());
+        }
+    }
+}
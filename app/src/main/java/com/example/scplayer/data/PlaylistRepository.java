@@ -0,0 +1,89 @@
+package com.example.scplayer.data;
+
+import android.content.Context;
+
+import com.example.scplayer.models.Playlist;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.utils.LibraryIndex;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// hands playlists between screens by id. memory first, then the store, which is what
+// a recreated fragment falls back to after process death
+public class PlaylistRepository {
+    private static PlaylistRepository instance;
+
+    private final LibraryStore store;
+    private final Map<Long, Playlist> playlists = new HashMap<>();
+    private final Map<Long, TrackList> tracks = new HashMap<>();
+
+    private PlaylistRepository(Context context) {
+        this.store = LibraryStore.getInstance(context);
+    }
+
+    public static synchronized PlaylistRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new PlaylistRepository(context);
+        }
+        return instance;
+    }
+
+    public synchronized void put(Playlist playlist) {
+        playlists.put(playlist.getId(), playlist);
+    }
+
+    // liked songs already live in the likes table, everything else is written to playlist_tracks
+    public void putTracks(long playlistId, List<Track> playlistTracks) {
+        TrackList view = TrackList.of(playlistTracks);
+        synchronized (this) {
+            tracks.put(playlistId, view);
+        }
+        if (playlistId != ApiConstants.LIKED_SONGS_PLAYLIST_ID) {
+            store.runAsync(() -> store.replacePlaylistTracks(playlistId, view));
+        }
+    }
+
+    public synchronized Playlist getPlaylist(long playlistId) {
+        return playlists.get(playlistId);
+    }
+
+    public synchronized TrackList getCachedTracks(long playlistId) {
+        return tracks.get(playlistId);
+    }
+
+    public void loadTracks(long playlistId, LibraryStore.LoadCallback<List<Track>> callback) {
+        TrackList cached = getCachedTracks(playlistId);
+        if (cached != null) {
+            callback.onLoaded(cached);
+            return;
+        }
+
+        store.loadAsync(() -> {
+            if (playlistId == ApiConstants.LIKED_SONGS_PLAYLIST_ID) {
+                return store.getLikedTracks();
+            }
+            TrackList stored = store.getPlaylistTracks(playlistId);
+            // the index may not have this playlist yet, e.g. it was opened before the library loaded
+            Playlist playlist = getPlaylist(playlistId);
+            if (!stored.isEmpty() && playlist != null && playlist.getUrn() != null) {
+                LibraryIndex.getInstance().replaceSource(LibraryIndex.playlistSource(playlist.getUrn()), stored);
+            }
+            return stored;
+        }, loaded -> {
+            if (!loaded.isEmpty()) {
+                synchronized (this) {
+                    tracks.put(playlistId, loaded);
+                }
+            }
+            callback.onLoaded(loaded);
+        });
+    }
+
+    public synchronized void clear() {
+        playlists.clear();
+        tracks.clear();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.scplayer.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+
+import com.example.scplayer.api.CallRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// decides when a dataset actually needs the network. screens show what they already have and ask
+// ensureFresh(); the refresh only runs when the last sync is older than the dataset's ttl or it was
+// invalidated. last-synced times survive restarts, so a cold start with fresh data stays offline too
+public class RefreshCoordinator {
+    private static final String PREFS_NAME = "RefreshState";
+
+    public static final String LIBRARY = "library";
+    public static final String HOME_RELATED = "home.related";
+    private static final String PLAYLIST_PREFIX = "playlist.";
+
+    private static final long LIBRARY_TTL_MS = 5 * 60 * 1000;
+    private static final long HOME_RELATED_TTL_MS = 30 * 60 * 1000;
+    private static final long PLAYLIST_TTL_MS = 10 * 60 * 1000;
+    // a refresh that never reports back stops blocking a new one after this
+    private static final long IN_FLIGHT_TIMEOUT_MS = 30 * 1000;
+
+    private static RefreshCoordinator instance;
+
+    private final SharedPreferences prefs;
+    private final Map<String, Long> lastSynced = new HashMap<>();
+    private final Map<String, Claim> inFlight = new HashMap<>();
+
+    private static final class Claim {
+        final CallRegistry calls;
+        final long since;
+
+        Claim(CallRegistry calls, long since) {
+            this.calls = calls;
+            this.since = since;
+        }
+    }
+
+    private RefreshCoordinator(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        for (Map.Entry<String, ?> e : prefs.getAll().entrySet()) {
+            if (e.getValue() instanceof Long) {
+                lastSynced.put(e.getKey(), (Long) e.getValue());
+            }
+        }
+    }
+
+    public static synchronized RefreshCoordinator getInstance(Context context) {
+        if (instance == null) {
+            instance = new RefreshCoordinator(context);
+        }
+        return instance;
+    }
+
+    public static String playlistTracks(long playlistId) {
+        return PLAYLIST_PREFIX + playlistId;
+    }
+
+    private static long ttlFor(String key) {
+        if (LIBRARY.equals(key)) return LIBRARY_TTL_MS;
+        if (HOME_RELATED.equals(key)) return HOME_RELATED_TTL_MS;
+        return PLAYLIST_TTL_MS;
+    }
+
+    public synchronized boolean isStale(String key) {
+        Long synced = lastSynced.get(key);
+        // wall clock because the time is persisted; a clock moved backwards counts as stale
+        long age = System.currentTimeMillis() - (synced != null ? synced : 0);
+        return age < 0 || age >= ttlFor(key);
+    }
+
+    // runs refresh when the dataset is stale and no other refresh for it is running. the refresh
+    // must end in markSynced or markFailed; if its view is destroyed first the claim is dropped
+    // with it, since those callbacks never arrive. returns whether it was started
+    public boolean ensureFresh(String key, CallRegistry calls, Runnable refresh) {
+        synchronized (this) {
+            if (!isStale(key) || isInFlight(key)) return false;
+            inFlight.put(key, new Claim(calls, SystemClock.elapsedRealtime()));
+        }
+        refresh.run();
+        return true;
+    }
+
+    public synchronized void markSynced(String key) {
+        long now = System.currentTimeMillis();
+        inFlight.remove(key);
+        lastSynced.put(key, now);
+        prefs.edit().putLong(key, now).apply();
+    }
+
+    // keeps the previous sync time, so the next ensureFresh tries again
+    public synchronized void markFailed(String key) {
+        inFlight.remove(key);
+    }
+
+    // the next ensureFresh refreshes regardless of age
+    public synchronized void invalidate(String key) {
+        lastSynced.remove(key);
+        prefs.edit().remove(key).apply();
+    }
+
+    public synchronized long getLastSynced(String key) {
+        Long synced = lastSynced.get(key);
+        return synced != null ? synced : 0;
+    }
+
+    public synchronized void clear() {
+        lastSynced.clear();
+        inFlight.clear();
+        prefs.edit().clear().apply();
+    }
+
+    private boolean isInFlight(String key) {
+        Claim claim = inFlight.get(key);
+        return claim != null && claim.calls.isActive()
+                && SystemClock.elapsedRealtime() - claim.since < IN_FLIGHT_TIMEOUT_MS;
+    }
+}
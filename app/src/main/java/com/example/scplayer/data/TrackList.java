@@ -0,0 +1,96 @@
+package com.example.scplayer.data;
+
+import com.example.scplayer.models.Track;
+import com.example.scplayer.models.User;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.RandomAccess;
+
+// read-only list of row numbers into the TrackTable. the primitive getters read the columns
+// directly; get() builds a detached Track for code that still needs one, so loops over many
+// rows should use the getters instead of iterating
+public final class TrackList extends AbstractList<Track> implements RandomAccess {
+    private static final TrackList EMPTY = new TrackList(TrackTable.getInstance(), new int[0]);
+
+    private final TrackTable table;
+    private final int[] rows;
+
+    TrackList(TrackTable table, int[] rows) {
+        this.table = table;
+        this.rows = rows;
+    }
+
+    public static TrackList empty() {
+        return EMPTY;
+    }
+
+    public static TrackList of(List<Track> tracks) {
+        if (tracks instanceof TrackList) {
+            return (TrackList) tracks;
+        }
+        return TrackTable.getInstance().putAll(tracks);
+    }
+
+    @Override
+    public Track get(int index) {
+        return table.get(rows[index]);
+    }
+
+    @Override
+    public int size() {
+        return rows.length;
+    }
+
+    public long getId(int index) {
+        return table.getId(rows[index]);
+    }
+
+    public String getTitle(int index) {
+        return table.getTitle(rows[index]);
+    }
+
+    public long getDuration(int index) {
+        return table.getDuration(rows[index]);
+    }
+
+    public String getArtworkUrl(int index) {
+        return table.getArtworkUrl(rows[index]);
+    }
+
+    public String getPermalinkUrl(int index) {
+        return table.getPermalinkUrl(rows[index]);
+    }
+
+    public User getUser(int index) {
+        return table.getUser(rows[index]);
+    }
+
+    public int indexOfId(long id) {
+        for (int i = 0; i < rows.length; i++) {
+            if (table.getId(rows[i]) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // the first count rows as a list of their own, without building any Track
+    public TrackList head(int count) {
+        if (count >= rows.length) return this;
+        return table.share(Arrays.copyOf(rows, count));
+    }
+
+    public TrackList shuffled(Random random) {
+        int[] copy = rows.clone();
+        for (int i = copy.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = copy[i];
+            copy[i] = copy[j];
+            copy[j] = tmp;
+        }
+        return table.share(copy);
+    }
+}
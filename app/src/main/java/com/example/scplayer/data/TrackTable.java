@@ -0,0 +1,269 @@
+package com.example.scplayer.data;
+
+import com.example.scplayer.models.Track;
+import com.example.scplayer.models.User;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// process-wide columnar track storage: one row per track id, primitive columns for numbers,
+// interned strings and one shared User per artist. lists hold row numbers through TrackList.
+// every row is counted once per list holding it; once the last of those lists is collected the
+// row is reused, and the string and user pools are rebuilt when enough rows have gone.
+// writers lock the table; the column getters don't, so binding on main never waits on a putAll.
+// a row a live list holds is never freed, and the columns are only swapped for grown copies
+public class TrackTable {
+    public static final long NO_USER = -1;
+    private static final int INITIAL_CAPACITY = 256;
+    // pools are rebuilt once this many rows were freed, and at least half the table
+    private static final int MIN_COMPACT_ROWS = 256;
+
+    private static TrackTable instance;
+
+    // volatile so a lock-free reader that sees a grown column also sees what was copied into it
+    private volatile long[] ids = new long[INITIAL_CAPACITY];
+    private volatile long[] durations = new long[INITIAL_CAPACITY];
+    private volatile String[] titles = new String[INITIAL_CAPACITY];
+    private volatile String[] artworkUrls = new String[INITIAL_CAPACITY];
+    private volatile String[] permalinkUrls = new String[INITIAL_CAPACITY];
+    private volatile User[] users = new User[INITIAL_CAPACITY];
+    private int[] refs = new int[INITIAL_CAPACITY];
+    private int size;
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    private int freedSinceCompact;
+
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    private final Map<Long, User> usersById = new HashMap<>();
+    private final Map<String, String> strings = new HashMap<>();
+    // lists that still hold rows; collected ones show up in the queue
+    private final ReferenceQueue<TrackList> collected = new ReferenceQueue<>();
+    private final Set<ListRef> lists = new HashSet<>();
+
+    private static final class ListRef extends PhantomReference<TrackList> {
+        final int[] rows;
+
+        ListRef(TrackList list, int[] rows, ReferenceQueue<TrackList> queue) {
+            super(list, queue);
+            this.rows = rows;
+        }
+    }
+
+    private TrackTable() {
+    }
+
+    public static synchronized TrackTable getInstance() {
+        if (instance == null) {
+            instance = new TrackTable();
+        }
+        return instance;
+    }
+
+    public synchronized int put(Track track) {
+        User user = track.getUser();
+        return put(track.getId(), track.getTitle(), track.getDuration(), track.getArtworkUrl(),
+                track.getPermalinkUrl(), user != null ? user.getId() : NO_USER,
+                user != null ? user.getUsername() : null);
+    }
+
+    // newer data for a known id overwrites the row in place, so every list sees it; fields the
+    // newer copy lacks (a track embedded without its user, say) keep what the row had. the row is
+    // counted for the list it's about to go into, which must be built with adopt()
+    public synchronized int put(long id, String title, long duration, String artworkUrl,
+                                String permalinkUrl, long userId, String username) {
+        releaseCollected();
+        Integer existing = rowsById.get(id);
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else if (freeCount > 0) {
+            row = freeRows[--freeCount];
+            ids[row] = id;
+            rowsById.put(id, row);
+        } else {
+            ensureCapacity(size + 1);
+            row = size++;
+            ids[row] = id;
+            rowsById.put(id, row);
+        }
+        refs[row]++;
+
+        if (existing == null || duration > 0) {
+            durations[row] = duration;
+        }
+        if (existing == null || title != null) {
+            titles[row] = intern(title);
+        }
+        if (existing == null || artworkUrl != null) {
+            artworkUrls[row] = intern(artworkUrl);
+        }
+        if (existing == null || permalinkUrl != null) {
+            permalinkUrls[row] = intern(permalinkUrl);
+        }
+        if (existing == null || userId != NO_USER) {
+            users[row] = userId != NO_USER ? user(userId, username) : null;
+        }
+        return row;
+    }
+
+    public synchronized TrackList putAll(List<Track> tracks) {
+        int[] rows = new int[tracks.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = put(tracks.get(i));
+        }
+        return adopt(rows);
+    }
+
+    // a list over rows that were just put(); it takes over the count put() made for each
+    synchronized TrackList adopt(int[] rows) {
+        TrackList list = new TrackList(this, rows);
+        if (rows.length > 0) {
+            lists.add(new ListRef(list, rows, collected));
+        }
+        return list;
+    }
+
+    // a second list over rows another live list already holds, e.g. a shuffled queue
+    synchronized TrackList share(int[] rows) {
+        for (int row : rows) {
+            refs[row]++;
+        }
+        return adopt(rows);
+    }
+
+    // rows still held by a list stay valid; everything else, and the pools, are dropped. for logout
+    public synchronized void clear() {
+        releaseCollected();
+        compact();
+    }
+
+    // live rows
+    public synchronized int size() {
+        return size - freeCount;
+    }
+
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    public String getTitle(int row) {
+        return titles[row];
+    }
+
+    public long getDuration(int row) {
+        return durations[row];
+    }
+
+    public String getArtworkUrl(int row) {
+        return artworkUrls[row];
+    }
+
+    public String getPermalinkUrl(int row) {
+        return permalinkUrls[row];
+    }
+
+    public User getUser(int row) {
+        return users[row];
+    }
+
+    // a detached Track for apis that still want one; edits to it don't write back
+    public Track get(int row) {
+        Track track = new Track();
+        track.setId(ids[row]);
+        track.setTitle(titles[row]);
+        track.setDuration(durations[row]);
+        track.setArtworkUrl(artworkUrls[row]);
+        track.setPermalinkUrl(permalinkUrls[row]);
+        track.setUser(users[row]);
+        return track;
+    }
+
+    private User user(long userId, String username) {
+        User user = usersById.get(userId);
+        if (user == null) {
+            user = new User();
+            user.setId(userId);
+            usersById.put(userId, user);
+        }
+        if (username != null && !username.equals(user.getUsername())) {
+            user.setUsername(intern(username));
+        }
+        return user;
+    }
+
+    private String intern(String s) {
+        if (s == null) return null;
+        String pooled = strings.get(s);
+        if (pooled == null) {
+            strings.put(s, s);
+            return s;
+        }
+        return pooled;
+    }
+
+    private void releaseCollected() {
+        Reference<? extends TrackList> ref;
+        while ((ref = collected.poll()) != null) {
+            ListRef list = (ListRef) ref;
+            lists.remove(list);
+            for (int row : list.rows) {
+                if (--refs[row] == 0) {
+                    free(row);
+                }
+            }
+        }
+        if (freedSinceCompact >= MIN_COMPACT_ROWS && freedSinceCompact * 2 >= size) {
+            compact();
+        }
+    }
+
+    private void free(int row) {
+        rowsById.remove(ids[row]);
+        titles[row] = null;
+        artworkUrls[row] = null;
+        permalinkUrls[row] = null;
+        users[row] = null;
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        }
+        freeRows[freeCount++] = row;
+        freedSinceCompact++;
+    }
+
+    // rebuilds the string and user pools from the rows still in use
+    private void compact() {
+        strings.clear();
+        usersById.clear();
+        for (int row = 0; row < size; row++) {
+            if (refs[row] == 0) continue;
+            titles[row] = intern(titles[row]);
+            artworkUrls[row] = intern(artworkUrls[row]);
+            permalinkUrls[row] = intern(permalinkUrls[row]);
+            User user = users[row];
+            if (user != null) {
+                usersById.put(user.getId(), user);
+                intern(user.getUsername());
+            }
+        }
+        freedSinceCompact = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) return;
+        int grown = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, grown);
+        durations = Arrays.copyOf(durations, grown);
+        titles = Arrays.copyOf(titles, grown);
+        artworkUrls = Arrays.copyOf(artworkUrls, grown);
+        permalinkUrls = Arrays.copyOf(permalinkUrls, grown);
+        users = Arrays.copyOf(users, grown);
+        refs = Arrays.copyOf(refs, grown);
+    }
+}
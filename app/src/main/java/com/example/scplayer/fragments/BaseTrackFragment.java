@@ -1,29 +1,28 @@
 package com.example.scplayer.fragments;
 
-import android.util.Log;
 import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.scplayer.adapters.BaseTrackAdapter;
-import com.example.scplayer.api.ApiClient;
-import com.example.scplayer.api.SoundCloudApi;
 import com.example.scplayer.models.Track;
-import com.example.scplayer.utils.ApiConstants;
 import com.example.scplayer.utils.MiniPlayer;
 import com.example.scplayer.utils.TrackLikeManager;
+import com.example.scplayer.viewmodels.LikesViewModel;
 
 import java.util.List;
 
-public abstract class BaseTrackFragment extends Fragment 
+public abstract class BaseTrackFragment extends Fragment
     implements MiniPlayer.StateListener, MiniPlayer.LikeChangeListener {
 
-    protected SoundCloudApi api;
+    protected LikesViewModel likes;
     protected TrackLikeManager likeManager;
     @Nullable
     protected abstract BaseTrackAdapter getAdapter();
 
+    // also called for every later like change, the adapter only rebinds rows that flipped
     protected void onLikedTracksLoaded(List<Long> likedTrackIds) {
         BaseTrackAdapter adapter = getAdapter();
         if (adapter != null) {
@@ -31,29 +30,16 @@ public abstract class BaseTrackFragment extends Fragment
         }
     }
 
-    protected void onLikedTracksError(String error) {
-        Log.e(getClass().getSimpleName(), "Failed to load liked tracks: " + error);
-    }
-
     //onCreateView() loadLikedTracks()
     protected void initializeLikeManagement() {
-        api = ApiClient.getSoundCloudApi();
-        likeManager = new TrackLikeManager(api);
+        likes = new ViewModelProvider(this).get(LikesViewModel.class);
+        likeManager = likes.getLikeManager();
     }
 
     // onCreateView() initializeLikeManagement()
     protected void loadLikedTracks() {
-        likeManager.loadLikedTracks(ApiConstants.MAX_LIKED_TRACKS, new TrackLikeManager.LoadCallback() {
-            @Override
-            public void onLoaded(List<Long> likedTrackIds) {
-                onLikedTracksLoaded(likedTrackIds);
-            }
-
-            @Override
-            public void onError(String error) {
-                onLikedTracksError(error);
-            }
-        });
+        likes.getLikedIds().observe(getViewLifecycleOwner(), this::onLikedTracksLoaded);
+        likes.load();
     }
 
     // onCreateView()
@@ -69,26 +55,16 @@ public abstract class BaseTrackFragment extends Fragment
     protected void toggleLike(Track track, boolean isCurrentlyLiked) {
         if (track == null) return;
 
+        LikesViewModel likes = this.likes;
         likeManager.toggleLike(track, isCurrentlyLiked, new TrackLikeManager.LikeCallback() {
             @Override
             public void onSuccess(boolean nowLiked) {
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-
-                        BaseTrackAdapter adapter = getAdapter();
-                        if (adapter != null) {
-                            if (nowLiked) {
-                                adapter.addLikedTrack(track.getId());
-                            } else {
-                                adapter.removeLikedTrack(track.getId());
-                            }
-                        }
-                        
-                        // notify mini player
-                        MiniPlayer.getInstance().notifyTrackLikeChanged(track.getId(), nowLiked);
-                        showLikeToast(nowLiked);
-                    });
-                }
+                // applied even if the view was recreated while the call was running
+                likes.setLiked(track.getId(), nowLiked);
+
+                // notify mini player
+                MiniPlayer.getInstance().notifyTrackLikeChanged(track.getId(), nowLiked);
+                showLikeToast(nowLiked);
             }
 
             @Override
@@ -103,8 +79,8 @@ public abstract class BaseTrackFragment extends Fragment
 
     protected void showLikeToast(boolean isLiked) {
         if (getContext() != null) {
-            Toast.makeText(getContext(), 
-                isLiked ? "Added to likes" : "Removed from likes", 
+            Toast.makeText(getContext(),
+                isLiked ? "Added to likes" : "Removed from likes",
                 Toast.LENGTH_SHORT).show();
         }
     }
@@ -115,15 +91,11 @@ public abstract class BaseTrackFragment extends Fragment
         unregisterMiniPlayerListener();
     }
 
+    // liked or unliked on another screen; observers of the view model update the adapter
     @Override
     public void onLikeChanged(long trackId, boolean isLiked) {
-        BaseTrackAdapter adapter = getAdapter();
-        if (adapter != null) {
-            if (isLiked) {
-                adapter.addLikedTrack(trackId);
-            } else {
-                adapter.removeLikedTrack(trackId);
-            }
+        if (likes != null) {
+            likes.setLiked(trackId, isLiked);
         }
     }
 
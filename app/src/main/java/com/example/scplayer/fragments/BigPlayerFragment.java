@@ -17,6 +17,7 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.bumptech.glide.Glide;
 import com.example.scplayer.R;
@@ -27,12 +28,11 @@ import com.example.scplayer.playback.PlaybackService;
 import com.example.scplayer.utils.ImageUtils;
 import com.example.scplayer.utils.MiniPlayer;
 import com.example.scplayer.utils.TimeUtils;
+import com.example.scplayer.viewmodels.PlayerViewModel;
 
 import java.util.List;
 
-public class BigPlayerFragment extends BaseTrackFragment implements 
-        MiniPlayer.ErrorListener,
-        MiniPlayer.ShuffleRepeatListener {
+public class BigPlayerFragment extends BaseTrackFragment {
 
     private ImageButton btnMinimize;
     private ImageView ivAlbumCover;
@@ -50,6 +50,7 @@ public class BigPlayerFragment extends BaseTrackFragment implements
     private ImageButton btnShare;
 
     private MiniPlayer miniPlayer;
+    private PlayerViewModel viewModel;
     private Handler handler;
     private boolean isShuffleEnabled = false;
     private boolean isRepeatEnabled = false;
@@ -79,28 +80,26 @@ public class BigPlayerFragment extends BaseTrackFragment implements
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        miniPlayer = MiniPlayer.getInstance();
+        viewModel = new ViewModelProvider(requireActivity()).get(PlayerViewModel.class);
+        miniPlayer = viewModel.getPlayer();
         initializeLikeManagement(); // From BaseTrackFragment
         handler = new Handler(Looper.getMainLooper());
 
         initViews(view);
         setupListeners();
         loadLikedTracks(); // From BaseTrackFragment
-        updateUI();
+        observePlayer();
         startSeekBarUpdate();
         hideMiniPlayer();
         registerMiniPlayerListener(); // From BaseTrackFragment
     }
 
+    // initial load and every later like change, from this screen or another
     @Override
     protected void onLikedTracksLoaded(List<Long> likedTrackIds) {
-        if (getActivity() != null) {
-            getActivity().runOnUiThread(() -> {
-                Track track = miniPlayer.getCurrentTrack();
-                if (track != null) {
-                    updateLikeButton(track);
-                }
-            });
+        Track track = miniPlayer.getCurrentTrack();
+        if (track != null) {
+            updateLikeButton(track);
         }
     }
 
@@ -135,11 +134,6 @@ public class BigPlayerFragment extends BaseTrackFragment implements
         btnRepeat = view.findViewById(R.id.btnRepeat);
         btnLike = view.findViewById(R.id.btnLike);
         btnShare = view.findViewById(R.id.btnShare);
-        
-        isShuffleEnabled = miniPlayer.isShuffleEnabled();
-        isRepeatEnabled = miniPlayer.isRepeatEnabled();
-        btnShuffle.setAlpha(isShuffleEnabled ? 1.0f : 0.5f);
-        btnRepeat.setAlpha(isRepeatEnabled ? 1.0f : 0.5f);
     }
 
     private void setupListeners() {
@@ -151,17 +145,9 @@ public class BigPlayerFragment extends BaseTrackFragment implements
         btnPreviousBig.setOnClickListener(v -> miniPlayer.previous());
         btnNextBig.setOnClickListener(v -> miniPlayer.next());
 
-        btnShuffle.setOnClickListener(v -> {
-            isShuffleEnabled = !isShuffleEnabled;
-            miniPlayer.setShuffleEnabled(isShuffleEnabled);
-            btnShuffle.setAlpha(isShuffleEnabled ? 1.0f : 0.5f);
-        });
-
-        btnRepeat.setOnClickListener(v -> {
-            isRepeatEnabled = !isRepeatEnabled;
-            miniPlayer.setRepeatEnabled(isRepeatEnabled);
-            btnRepeat.setAlpha(isRepeatEnabled ? 1.0f : 0.5f);
-        });
+        // the buttons follow the view model, which hears back from the player
+        btnShuffle.setOnClickListener(v -> miniPlayer.setShuffleEnabled(!isShuffleEnabled));
+        btnRepeat.setOnClickListener(v -> miniPlayer.setRepeatEnabled(!isRepeatEnabled));
 
         btnLike.setOnClickListener(v -> {
             Track track = miniPlayer.getCurrentTrack();
@@ -194,13 +180,28 @@ public class BigPlayerFragment extends BaseTrackFragment implements
         });
     }
 
-    private void updateUI() {
-        if (miniPlayer.hasTrack()) {
-            Track track = miniPlayer.getCurrentTrack();
-            updateTrackInfo(track);
-            updatePlayPauseButton(miniPlayer.isPlaying());
-            updateLikeButton(track);
-        }
+    private void observePlayer() {
+        viewModel.getTrack().observe(getViewLifecycleOwner(), track -> {
+            if (track != null) {
+                updateTrackInfo(track);
+                updateLikeButton(track);
+            }
+        });
+        viewModel.isPlaying().observe(getViewLifecycleOwner(), this::updatePlayPauseButton);
+        viewModel.isShuffleEnabled().observe(getViewLifecycleOwner(), enabled -> {
+            isShuffleEnabled = enabled;
+            btnShuffle.setAlpha(enabled ? 1.0f : 0.5f);
+        });
+        viewModel.isRepeatEnabled().observe(getViewLifecycleOwner(), enabled -> {
+            isRepeatEnabled = enabled;
+            btnRepeat.setAlpha(enabled ? 1.0f : 0.5f);
+        });
+        viewModel.getErrors().observe(getViewLifecycleOwner(), event -> {
+            String message = event.getIfNotHandled();
+            if (message != null) {
+                Toast.makeText(requireContext(), "Playback error: " + message, Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void updateTrackInfo(Track track) {
@@ -223,7 +224,7 @@ public class BigPlayerFragment extends BaseTrackFragment implements
 
     private void updateLikeButton(Track track) {
         if (track == null) return;
-        isLiked = likeManager.isLiked(track.getId());
+        isLiked = likes.isLiked(track.getId());
         btnLike.setImageResource(isLiked ? R.drawable.ic_heart_filled : R.drawable.ic_heart_outline);
     }
 
@@ -254,43 +255,6 @@ public class BigPlayerFragment extends BaseTrackFragment implements
         }
     }
 
-    @Override
-    public void onTrackChanged(Track track) {
-        updateTrackInfo(track);
-        updateLikeButton(track);
-    }
-
-    @Override
-    public void onPlaybackStateChanged(boolean isPlaying) {
-        updatePlayPauseButton(isPlaying);
-    }
-
-    @Override
-    public void onPlaybackError(String message) {
-        Toast.makeText(requireContext(), "Playback error: " + message, Toast.LENGTH_SHORT).show();
-    }
-
-    @Override
-    public void onShuffleRepeatChanged(boolean shuffleEnabled, boolean repeatEnabled) {
-        requireActivity().runOnUiThread(() -> {
-            isShuffleEnabled = shuffleEnabled;
-            isRepeatEnabled = repeatEnabled;
-            btnShuffle.setAlpha(isShuffleEnabled ? 1.0f : 0.5f);
-            btnRepeat.setAlpha(isRepeatEnabled ? 1.0f : 0.5f);
-        });
-    }
-
-    @Override
-    public void onLikeChanged(long trackId, boolean liked) {
-        Track currentTrack = miniPlayer.getCurrentTrack();
-        if (currentTrack != null && currentTrack.getId() == trackId) {
-            requireActivity().runOnUiThread(() -> {
-                isLiked = liked;
-                btnLike.setImageResource(isLiked ? R.drawable.ic_heart_filled : R.drawable.ic_heart_outline);
-            });
-        }
-    }
-
     @Override
     public void onDestroyView() {
         super.onDestroyView(); // This calls unregisterMiniPlayerListener from base
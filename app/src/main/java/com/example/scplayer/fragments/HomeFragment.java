@@ -12,35 +12,42 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.scplayer.adapters.PlaylistAdapter;
 import com.example.scplayer.models.Playlist;
+import com.example.scplayer.utils.ArtworkPreloader;
+import com.example.scplayer.utils.LibraryIndex;
 import com.example.scplayer.utils.TrackLikeManager;
 import com.example.scplayer.utils.NavigationHelper;
-import com.example.scplayer.api.SoundCloudApi;
-import com.example.scplayer.api.ApiClient;
-import com.example.scplayer.models.PaginatedResponse;
-import com.example.scplayer.models.Track;
-
-import java.util.List;
-import java.util.ArrayList;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import com.example.scplayer.utils.SharedViewPool;
+import com.example.scplayer.utils.StartupScheduler;
 
 import com.example.scplayer.LoginActivity;
 import com.example.scplayer.R;
 import com.example.scplayer.auth.AuthManager;
+import com.example.scplayer.data.HomeFeed;
+import com.example.scplayer.data.LibrarySnapshot;
+import com.example.scplayer.data.LibraryStore;
+import com.example.scplayer.data.LibrarySyncWorker;
+import com.example.scplayer.data.PlaylistPrefetcher;
+import com.example.scplayer.data.PlaylistRepository;
+import com.example.scplayer.data.RefreshCoordinator;
+import com.example.scplayer.data.TrackTable;
+import com.example.scplayer.playback.AudioPrecacheWorker;
+import com.example.scplayer.playback.AudioPrecacher;
+import com.example.scplayer.playback.HeadPrefetcher;
+import com.example.scplayer.playback.StreamResolver;
+import com.example.scplayer.viewmodels.HomeViewModel;
 
 public class HomeFragment extends Fragment {
 
     private AuthManager auth;
     private PlaylistAdapter adapter;
-    private Playlist relatedPlaylist;
+    private HomeViewModel viewModel;
 
     @Nullable
     @Override
@@ -53,6 +60,7 @@ public class HomeFragment extends Fragment {
         super.onViewCreated(view, savedInstanceState);
 
         auth = new AuthManager(requireContext());
+        viewModel = new ViewModelProvider(this).get(HomeViewModel.class);
 
         TextView title = view.findViewById(R.id.titleText);
         title.setText("Home");
@@ -60,6 +68,20 @@ public class HomeFragment extends Fragment {
         Button logout = view.findViewById(R.id.btnLogout);
         logout.setOnClickListener(v -> {
             auth.logout();
+            LibraryStore store = LibraryStore.getInstance(requireContext());
+            store.runAsync(store::clear);
+            LibraryIndex.getInstance().clear();
+            LibrarySnapshot.getInstance(requireContext()).clear();
+            PlaylistRepository.getInstance(requireContext()).clear();
+            TrackTable.getInstance().clear();
+            PlaylistPrefetcher.getInstance(requireContext()).clear();
+            RefreshCoordinator.getInstance(requireContext()).clear();
+            HomeFeed.getInstance(requireContext()).clear();
+            LibrarySyncWorker.cancel(requireContext());
+            AudioPrecacheWorker.cancel(requireContext());
+            AudioPrecacher.getInstance(requireContext()).clear();
+            HeadPrefetcher.getInstance(requireContext()).cancelAll();
+            StreamResolver.getInstance().clear();
             Toast.makeText(requireContext(), "Logged out", Toast.LENGTH_SHORT).show();
             NavigationHelper.navigateToLogin(requireContext());
         });
@@ -69,75 +91,37 @@ public class HomeFragment extends Fragment {
             openPlaylistDetail(playlist);
         });
         rv.setLayoutManager(new LinearLayoutManager(requireContext()));
+        SharedViewPool.attach(rv, requireActivity());
+        ArtworkPreloader.attach(rv, adapter);
+        PlaylistPrefetcher.getInstance(requireContext()).attach(rv);
         rv.setAdapter(adapter);
 
-        fetchLatestLikedRelatedTracks();
+        // after a rotation both replay what the view model already holds, no new requests
+        viewModel.getCards().observe(getViewLifecycleOwner(), cards -> {
+            adapter.setPlaylists(cards);
+            StartupScheduler.markFirstMeaningfulFrame(this, "home");
+        });
+        viewModel.getMessages().observe(getViewLifecycleOwner(), event -> {
+            String message = event.getIfNotHandled();
+            if (message != null) {
+                Toast.makeText(requireContext(), message, Toast.LENGTH_SHORT).show();
+            }
+        });
+
+        viewModel.refreshIfStale();
     }
 
     @Override
     public void onHiddenChanged(boolean hidden) {
         super.onHiddenChanged(hidden);
-        if (!hidden) {
-            // Fragment is now visible, refresh related tracks
-            fetchLatestLikedRelatedTracks();
+        if (!hidden && viewModel != null) {
+            // only refetched when the related tracks are stale or a like changed
+            viewModel.refreshIfStale();
         }
     }
 
-    private void fetchLatestLikedRelatedTracks() {
-        SoundCloudApi api = ApiClient.getSoundCloudApi();
-        // Get liked tracks (limit 1, latest)
-        api.getLikedTracks(1, 0).enqueue(new Callback<List<Track>>() {
-            @Override
-            public void onResponse(Call<List<Track>> call, Response<List<Track>> response) {
-                if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
-                    Track latest = response.body().get(0);
-                    String urn = "soundcloud:tracks:" + latest.getId();
-                    fetchRelatedTracks(urn);
-                } else {
-                    Toast.makeText(requireContext(), "No liked tracks found", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<Track>> call, Throwable t) {
-                Toast.makeText(requireContext(), "Failed to fetch liked tracks", Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
-    private void fetchRelatedTracks(String trackUrn) {
-        SoundCloudApi api = ApiClient.getSoundCloudApi();
-        api.getRelatedTracks(trackUrn, "playable,preview", 20, true).enqueue(new Callback<PaginatedResponse<Track>>() {
-            @Override
-            public void onResponse(Call<PaginatedResponse<Track>> call, Response<PaginatedResponse<Track>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    List<Track> related = response.body().getCollection();
-                    relatedPlaylist = new Playlist();
-                    relatedPlaylist.setTitle("Related");
-                    relatedPlaylist.setTracks(related);
-                    relatedPlaylist.setTrackCount(related.size());
-                    // set artwork to first track's artwork if available
-                    if (related != null && !related.isEmpty() && related.get(0).getArtworkUrl() != null) {
-                        relatedPlaylist.setArtworkUrl(related.get(0).getArtworkUrl());
-                    }
-                    // show as a single playlist card
-                    List<Playlist> playlists = new ArrayList<>();
-                    playlists.add(relatedPlaylist);
-                    adapter.setPlaylists(playlists);
-                } else {
-                    Toast.makeText(requireContext(), "No related tracks found", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<PaginatedResponse<Track>> call, Throwable t) {
-                Toast.makeText(requireContext(), "Failed to fetch related tracks", Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
     private void openPlaylistDetail(Playlist playlist) {
-        PlaylistDetailFragment fragment = PlaylistDetailFragment.newInstance(playlist, playlist.getTracks());
+        PlaylistDetailFragment fragment = PlaylistDetailFragment.newInstance(requireContext(), playlist, playlist.getTracks());
         requireActivity().getSupportFragmentManager()
                 .beginTransaction()
                 .replace(R.id.fragmentContainer, fragment)
@@ -1,7 +1,6 @@
 package com.example.scplayer.fragments;
 
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,37 +8,29 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.scplayer.R;
 import com.example.scplayer.adapters.PlaylistAdapter;
-import com.example.scplayer.api.ApiClient;
-import com.example.scplayer.api.SoundCloudApi;
-import com.example.scplayer.models.PaginatedResponse;
+import com.example.scplayer.data.PlaylistPrefetcher;
 import com.example.scplayer.models.Playlist;
 import com.example.scplayer.models.Track;
 import com.example.scplayer.utils.ApiConstants;
-import com.example.scplayer.utils.CollectionUtils;
-import com.example.scplayer.utils.PlaylistManager;
+import com.example.scplayer.utils.ArtworkPreloader;
+import com.example.scplayer.utils.SharedViewPool;
+import com.example.scplayer.utils.StartupScheduler;
+import com.example.scplayer.viewmodels.LibraryViewModel;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class LibraryFragment extends Fragment {
 
     private RecyclerView recycler;
     private View empty;
     private PlaylistAdapter adapter;
-    private SoundCloudApi api;
-    private PlaylistManager playlistManager;
-    private List<Track> liked = new ArrayList<>();
-    private List<Playlist> cachedPlaylists = new ArrayList<>();
-    private List<Playlist> cachedUserPlaylists = new ArrayList<>();
+    private LibraryViewModel viewModel;
 
     @Nullable
     @Override
@@ -53,51 +44,53 @@ public class LibraryFragment extends Fragment {
 
         initializeViews(view);
         setupRecyclers();
-        loadLibraryData();
-    }
-
-    // refresh on resume/hidden change fix
-    @Override
-    public void onResume() {
-        super.onResume();
-        loadLibraryData();
+        observeLibrary();
+        viewModel.refreshIfStale();
     }
 
+    // tab switches show what's cached; the network is only asked once the library is stale or a like changed it
     @Override
     public void onHiddenChanged(boolean hidden) {
         super.onHiddenChanged(hidden);
-        if (!hidden) {
-            loadLibraryData();
+        if (!hidden && viewModel != null) {
+            viewModel.refreshIfStale();
         }
     }
 
     private void initializeViews(View view) {
         recycler = view.findViewById(R.id.playlistsRecycler);
         empty = view.findViewById(R.id.empty);
-        api = ApiClient.getSoundCloudApi();
-        playlistManager = new PlaylistManager(api);
+        viewModel = new ViewModelProvider(this).get(LibraryViewModel.class);
     }
 
     private void setupRecyclers() {
         adapter = new PlaylistAdapter(p -> {
             if (p.getId() == ApiConstants.LIKED_SONGS_PLAYLIST_ID) {
-                openPlaylist(p, liked);
+                openPlaylist(p, viewModel.getLiked());
             } else {
                 openPlaylist(p, null);
             }
         });
         recycler.setLayoutManager(new GridLayoutManager(getContext(), ApiConstants.PLAYLIST_GRID_COLUMNS));
+        SharedViewPool.attach(recycler, requireActivity());
+        ArtworkPreloader.attach(recycler, adapter);
+        PlaylistPrefetcher.getInstance(requireContext()).attach(recycler);
         recycler.setAdapter(adapter);
-        
-        // read cached playlists
-        if (!cachedPlaylists.isEmpty()) {
-            adapter.setPlaylists(cachedPlaylists);
-            showEmpty(false);
-        }
     }
-    
+
+    // the view model outlives rotations, a recreated view just replays the current cards
+    private void observeLibrary() {
+        viewModel.getCards().observe(getViewLifecycleOwner(), cards -> {
+            adapter.setPlaylists(cards);
+            if (!cards.isEmpty()) {
+                StartupScheduler.markFirstMeaningfulFrame(this, "library");
+            }
+        });
+        viewModel.isEmpty().observe(getViewLifecycleOwner(), this::showEmpty);
+    }
+
     private void openPlaylist(Playlist p, List<Track> tracks) {
-        PlaylistDetailFragment fragment = PlaylistDetailFragment.newInstance(p, tracks);
+        PlaylistDetailFragment fragment = PlaylistDetailFragment.newInstance(requireContext(), p, tracks);
         getActivity().getSupportFragmentManager()
                 .beginTransaction()
                 .replace(R.id.fragmentContainer, fragment)
@@ -105,105 +98,6 @@ public class LibraryFragment extends Fragment {
                 .commit();
     }
 
-    private void loadLibraryData() {
-        showEmpty(false);
-        loadLikedTracks();
-    }
-
-    private void loadLikedTracks() {
-        api.getLikedTracks(ApiConstants.MAX_LIKED_TRACKS, 0).enqueue(new Callback<List<Track>>() {
-            @Override
-            public void onResponse(Call<List<Track>> call, Response<List<Track>> res) {
-                if (res.isSuccessful() && res.body() != null) {
-                    List<Track> newLiked = res.body();
-                    boolean likedChanged = !CollectionUtils.areTracksEqual(liked, newLiked);
-                    
-                    if (likedChanged) {
-                        liked = newLiked;
-                    }
-                    loadPlaylists(likedChanged);
-                } else {
-                    loadPlaylists(false);
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<Track>> call, Throwable t) {
-                loadPlaylists(false);
-            }
-        });
-    }
-
-    private void loadPlaylists(boolean likedChanged) {
-        playlistManager.loadUserPlaylists(playlists -> {
-            boolean playlistsChanged = !CollectionUtils.arePlaylistsEqual(cachedUserPlaylists, playlists);
-            
-            if (likedChanged || playlistsChanged) {
-                cachedUserPlaylists = playlists;
-                fetchArtwork(playlists, 0);
-            }
-        });
-    }
-    
-    private void fetchArtwork(List<Playlist> playlists, int i) {
-        if (i >= playlists.size()) {
-            display(playlists);
-            return;
-        }
-        
-        Playlist p = playlists.get(i);
-
-        if (p.getArtworkUrl() != null) {
-            fetchArtwork(playlists, i + 1);
-            return;
-        }
-
-        String urn = p.getUrn();
-        if (urn != null) {
-            api.getPlaylistTracks(urn, 1).enqueue(new Callback<List<Track>>() {
-                @Override
-                public void onResponse(Call<List<Track>> call, Response<List<Track>> res) {
-                    if (res.isSuccessful() && res.body() != null && !res.body().isEmpty()) {
-                        p.setArtworkUrl(res.body().get(0).getArtworkUrl());
-                    }
-                    fetchArtwork(playlists, i + 1);
-                }
-
-                @Override
-                public void onFailure(Call<List<Track>> call, Throwable t) {
-                    fetchArtwork(playlists, i + 1);
-                }
-            });
-        } else {
-            fetchArtwork(playlists, i + 1);
-        }
-    }
-    
-    private void display(List<Playlist> user) {
-        List<Playlist> all = new ArrayList<>();
-        
-        if (!liked.isEmpty()) {
-            all.add(createLiked());
-        }
-        
-        all.addAll(user);
-        cachedPlaylists = all;
-        adapter.setPlaylists(all);
-        
-        if (all.isEmpty()) {
-            showEmpty(true);
-        }
-    }
-    
-    private Playlist createLiked() {
-        Playlist p = new Playlist();
-        p.setId(ApiConstants.LIKED_SONGS_PLAYLIST_ID);
-        p.setTitle("Liked Songs");
-        p.setTrackCount(liked.size());
-        p.setArtworkUrl(liked.get(0).getArtworkUrl());
-        return p;
-    }
-
     private void showEmpty(boolean show) {
         empty.setVisibility(show ? View.VISIBLE : View.GONE);
     }
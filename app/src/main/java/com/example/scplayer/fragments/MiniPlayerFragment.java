@@ -12,16 +12,18 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.cardview.widget.CardView;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.bumptech.glide.Glide;
 import com.example.scplayer.R;
 import com.example.scplayer.models.Track;
 import com.example.scplayer.utils.ImageUtils;
 import com.example.scplayer.utils.MiniPlayer;
+import com.example.scplayer.viewmodels.PlayerViewModel;
 
 import android.widget.Toast;
 
-public class MiniPlayerFragment extends Fragment implements MiniPlayer.StateListener, MiniPlayer.ErrorListener {
+public class MiniPlayerFragment extends Fragment {
 
     private CardView miniPlayerCard;
     private ImageView miniPlayerCover;
@@ -32,6 +34,7 @@ public class MiniPlayerFragment extends Fragment implements MiniPlayer.StateList
     private ImageButton btnNext;
 
     private MiniPlayer miniPlayer;
+    private PlayerViewModel viewModel;
 
     @Nullable
     @Override
@@ -43,11 +46,13 @@ public class MiniPlayerFragment extends Fragment implements MiniPlayer.StateList
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        miniPlayer = MiniPlayer.getInstance();
-        miniPlayer.initialize(requireContext());
+        // the service is bound by HomeActivity's startup stages, after the first frame.
+        // the view model is activity scoped and shared with the big player
+        viewModel = new ViewModelProvider(requireActivity()).get(PlayerViewModel.class);
+        miniPlayer = viewModel.getPlayer();
         initViews(view);
         setupListeners();
-        updateUI();
+        observePlayer();
     }
 
     @Override
@@ -69,8 +74,6 @@ public class MiniPlayerFragment extends Fragment implements MiniPlayer.StateList
     }
 
     private void setupListeners() {
-        miniPlayer.addListener(this);
-
         miniPlayerCard.setOnClickListener(v -> openBigPlayer());
 
         btnPlayPause.setOnClickListener(v -> miniPlayer.togglePlayPause());
@@ -103,27 +106,22 @@ public class MiniPlayerFragment extends Fragment implements MiniPlayer.StateList
         }
     }
 
-    private void updateUI() {
-        if (miniPlayer.hasTrack()) {
-            updateMiniPlayer(miniPlayer.getCurrentTrack());
-            updatePlayPauseButton(miniPlayer.isPlaying());
+    private void observePlayer() {
+        viewModel.getTrack().observe(getViewLifecycleOwner(), track -> {
+            if (track == null) {
+                miniPlayerCard.setVisibility(View.GONE);
+                return;
+            }
+            updateMiniPlayer(track);
             miniPlayerCard.setVisibility(View.VISIBLE);
-        } else {
-            miniPlayerCard.setVisibility(View.GONE);
-        }
-    }
-
-    @Override
-    public void onTrackChanged(Track track) {
-        updateMiniPlayer(track);
-        if (miniPlayerCard.getVisibility() != View.VISIBLE) {
-            miniPlayerCard.setVisibility(View.VISIBLE);
-        }
-    }
-
-    @Override
-    public void onPlaybackStateChanged(boolean isPlaying) {
-        updatePlayPauseButton(isPlaying);
+        });
+        viewModel.isPlaying().observe(getViewLifecycleOwner(), this::updatePlayPauseButton);
+        viewModel.getErrors().observe(getViewLifecycleOwner(), event -> {
+            String message = event.getIfNotHandled();
+            if (message != null) {
+                Toast.makeText(requireContext(), "Playback error: " + message, Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void updateMiniPlayer(Track track) {
@@ -138,15 +136,4 @@ public class MiniPlayerFragment extends Fragment implements MiniPlayer.StateList
     private void updatePlayPauseButton(boolean isPlaying) {
         btnPlayPause.setImageResource(isPlaying ? R.drawable.ic_pause : R.drawable.ic_play);
     }
-
-    @Override
-    public void onPlaybackError(String message) {
-        Toast.makeText(requireContext(), "Playback error: " + message, Toast.LENGTH_SHORT).show();
-    }
-
-    @Override
-    public void onDestroyView() {
-        super.onDestroyView();
-        miniPlayer.removeListener(this);
-    }
 }
@@ -1,5 +1,6 @@
 package com.example.scplayer.fragments;
 
+import android.content.Context;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -12,52 +13,67 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.scplayer.R;
 import com.example.scplayer.adapters.BaseTrackAdapter;
 import com.example.scplayer.adapters.TrackAdapter;
-import com.example.scplayer.api.ApiClient;
-import com.example.scplayer.api.SoundCloudApi;
+import com.example.scplayer.data.PlaylistPrefetcher;
+import com.example.scplayer.data.PlaylistRepository;
 import com.example.scplayer.models.Playlist;
 import com.example.scplayer.models.Track;
-import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.playback.HeadPrefetcher;
+import com.example.scplayer.playback.StreamSpeculator;
+import com.example.scplayer.utils.ArtworkPreloader;
+import com.example.scplayer.utils.SharedViewPool;
 import com.example.scplayer.utils.TrackLikeManager;
+import com.example.scplayer.viewmodels.PlaylistDetailViewModel;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class PlaylistDetailFragment extends BaseTrackFragment {
 
-    private static final String ARG_PLAYLIST = "playlist";
-    private static final String ARG_TRACKS = "tracks";
+    // only ids and short strings go in the bundle; tracks are resolved through PlaylistRepository
+    private static final String ARG_PLAYLIST_ID = "playlist_id";
+    private static final String ARG_TITLE = "title";
+    private static final String ARG_URN = "urn";
 
     private RecyclerView recycler;
     private View empty;
     private TextView titleView;
     private ImageButton btnBack;
     private TrackAdapter adapter;
-    
-    private Playlist playlist;
-    private List<Track> tracks;
+
+    private PlaylistDetailViewModel viewModel;
     private List<Long> likedTrackIds = new ArrayList<>();
 
+    private static final int LIKELY_TAPS = 2;
+    private final List<Long> likelyTaps = new ArrayList<>();
+
     @Nullable
     @Override
     protected BaseTrackAdapter getAdapter() {
         return adapter;
     }
 
-    public static PlaylistDetailFragment newInstance(Playlist playlist, List<Track> tracks) {
+    public static PlaylistDetailFragment newInstance(Context context, Playlist playlist, @Nullable List<Track> tracks) {
+        PlaylistRepository repository = PlaylistRepository.getInstance(context);
+        repository.put(playlist);
+        if (tracks != null) {
+            repository.putTracks(playlist.getId(), tracks);
+        } else {
+            // a playlist that came with its tracks needs no call once the screen is open
+            PlaylistPrefetcher.getInstance(context).adoptEmbedded(playlist);
+        }
+
         PlaylistDetailFragment fragment = new PlaylistDetailFragment();
         Bundle args = new Bundle();
-        args.putSerializable(ARG_PLAYLIST, playlist);
-        args.putSerializable(ARG_TRACKS, (ArrayList<Track>) tracks);
+        args.putLong(ARG_PLAYLIST_ID, playlist.getId());
+        args.putString(ARG_TITLE, playlist.getTitle());
+        args.putString(ARG_URN, playlist.getUrn());
         fragment.setArguments(args);
         return fragment;
     }
@@ -72,9 +88,10 @@ public class PlaylistDetailFragment extends BaseTrackFragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        if (getArguments() != null) {
-            playlist = (Playlist) getArguments().getSerializable(ARG_PLAYLIST);
-            tracks = (List<Track>) getArguments().getSerializable(ARG_TRACKS);
+        viewModel = new ViewModelProvider(this).get(PlaylistDetailViewModel.class);
+        Bundle args = getArguments();
+        if (args != null) {
+            viewModel.init(args.getLong(ARG_PLAYLIST_ID), args.getString(ARG_TITLE), args.getString(ARG_URN));
         }
 
         initViews(view);
@@ -82,7 +99,7 @@ public class PlaylistDetailFragment extends BaseTrackFragment {
         registerMiniPlayerListener();
         setupRecycler();
         loadLikedTracks();
-        loadTracks();
+        observeTracks();
     }
 
     private void initViews(View view) {
@@ -90,7 +107,8 @@ public class PlaylistDetailFragment extends BaseTrackFragment {
         empty = view.findViewById(R.id.empty);
         titleView = view.findViewById(R.id.playlistTitle);
         btnBack = view.findViewById(R.id.btnBack);
-        
+
+        Playlist playlist = viewModel.getPlaylist();
         if (playlist != null) {
             titleView.setText(playlist.getTitle());
         }
@@ -110,8 +128,8 @@ public class PlaylistDetailFragment extends BaseTrackFragment {
 
     private void setupRecycler() {
 
-        boolean isLikedPlaylist = playlist != null && playlist.getId() == ApiConstants.LIKED_SONGS_PLAYLIST_ID;
-        
+        boolean isLikedPlaylist = viewModel.isLikedPlaylist();
+
         adapter = new TrackAdapter(new TrackAdapter.OnTrackClickListener() {
             @Override
             public void onTrackClick(Track track, int pos) {
@@ -123,45 +141,62 @@ public class PlaylistDetailFragment extends BaseTrackFragment {
             public void onLikeClick(Track track, int pos, boolean isLiked) {
                 // Use base method for common logic
                 toggleLike(track, isLiked);
-                
+
                 // Special case: if unliking from a "liked tracks" playlist, remove from view
                 if (!isLiked && isLikedPlaylist) {
-                    tracks.remove(pos);
-                    adapter.setTracks(tracks);
-                    showEmpty(tracks.isEmpty());
+                    viewModel.removeTrack(pos);
                 }
             }
         });
         recycler.setLayoutManager(new LinearLayoutManager(getContext()));
+        SharedViewPool.attach(recycler, requireActivity());
+        ArtworkPreloader.attach(recycler, adapter);
+        StreamSpeculator.attach(recycler);
         recycler.setAdapter(adapter);
     }
 
-    private void loadTracks() {
-        if (tracks != null) {
+    // loading lives in the view model; a rotation replays the tracks it already has
+    private void observeTracks() {
+        if (viewModel.getPlaylist() == null) {
+            showEmpty(true);
+            return;
+        }
+        viewModel.getTracks().observe(getViewLifecycleOwner(), tracks -> {
             adapter.setTracks(tracks);
-            showEmpty(tracks.isEmpty());
-        } else if (playlist != null && playlist.getUrn() != null) {
-            api.getPlaylistTracks(playlist.getUrn(), ApiConstants.PLAYLIST_TRACKS_LIMIT).enqueue(new Callback<List<Track>>() {
-                @Override
-                public void onResponse(Call<List<Track>> call, Response<List<Track>> res) {
-                    if (res.isSuccessful() && res.body() != null) {
-                        adapter.setTracks(res.body());
-                        showEmpty(res.body().isEmpty());
-                    } else {
-                        Log.d("PlaylistDetail", "Failed to load tracks: " + res.code());
-                        showEmpty(true);
-                    }
-                }
+            prefetchLikelyTaps(tracks);
+        });
+        viewModel.isEmpty().observe(getViewLifecycleOwner(), this::showEmpty);
+    }
 
-                @Override
-                public void onFailure(Call<List<Track>> call, Throwable t) {
-                    Log.d("PlaylistDetail", "Error: " + t.getMessage());
-                    showEmpty(true);
-                }
-            });
-        } else {
-            showEmpty(true);
+    // most plays from a playlist start at its top, so those heads are fetched while the user looks
+    private void prefetchLikelyTaps(List<Track> tracks) {
+        HeadPrefetcher prefetcher = HeadPrefetcher.getInstance(requireContext());
+        List<Long> next = new ArrayList<>();
+        for (int i = 0; i < Math.min(LIKELY_TAPS, tracks.size()); i++) {
+            next.add(tracks.get(i).getId());
+        }
+        for (long id : next) {
+            if (!likelyTaps.contains(id)) {
+                prefetcher.prefetch(id);
+            }
+        }
+        for (long id : likelyTaps) {
+            if (!next.contains(id)) {
+                prefetcher.cancel(id);
+            }
+        }
+        likelyTaps.clear();
+        likelyTaps.addAll(next);
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        HeadPrefetcher prefetcher = HeadPrefetcher.getInstance(requireContext());
+        for (long id : likelyTaps) {
+            prefetcher.cancel(id);
         }
+        likelyTaps.clear();
     }
 
     private void showEmpty(boolean show) {
@@ -1,8 +1,6 @@
 package com.example.scplayer.fragments;
 
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.util.Log;
@@ -12,39 +10,39 @@ import android.view.ViewGroup;
 import android.widget.EditText;
 import android.widget.ImageButton;
 import android.widget.LinearLayout;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.scplayer.R;
 import com.example.scplayer.adapters.BaseTrackAdapter;
 import com.example.scplayer.adapters.SearchResultAdapter;
-import com.example.scplayer.api.ApiClient;
-import com.example.scplayer.api.SoundCloudApi;
 import com.example.scplayer.models.Track;
-import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.playback.StreamSpeculator;
+import com.example.scplayer.utils.ArtworkPreloader;
+import com.example.scplayer.utils.SharedViewPool;
 import com.example.scplayer.utils.TrackLikeManager;
+import com.example.scplayer.viewmodels.SearchViewModel;
 
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class SearchFragment extends BaseTrackFragment implements SearchResultAdapter.OnTrackClickListener {
 
     private EditText input;
     private ImageButton clear;
     private RecyclerView results;
     private LinearLayout empty;
+    private TextView libraryHeader;
+    private RecyclerView libraryResults;
     private SearchResultAdapter adapter;
-
-    private Handler handler = new Handler(Looper.getMainLooper());
-    private Runnable runnable;
+    private SearchResultAdapter libraryAdapter;
+    private SearchViewModel viewModel;
 
     @Nullable
     @Override
@@ -62,7 +60,9 @@ public class SearchFragment extends BaseTrackFragment implements SearchResultAda
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
+        viewModel = new ViewModelProvider(this).get(SearchViewModel.class);
         initializeViews(view);
+        observeSearch();
         setupSearch();
     }
 
@@ -71,16 +71,60 @@ public class SearchFragment extends BaseTrackFragment implements SearchResultAda
         clear = view.findViewById(R.id.btnClearSearch);
         results = view.findViewById(R.id.recyclerViewResults);
         empty = view.findViewById(R.id.emptyState);
+        libraryHeader = view.findViewById(R.id.libraryHeader);
+        libraryResults = view.findViewById(R.id.recyclerViewLibrary);
 
         adapter = new SearchResultAdapter(this);
         results.setLayoutManager(new LinearLayoutManager(getContext()));
+        SharedViewPool.attach(results, requireActivity());
+        ArtworkPreloader.attach(results, adapter);
+        StreamSpeculator.attach(results);
         results.setAdapter(adapter);
 
+        libraryAdapter = new SearchResultAdapter(new SearchResultAdapter.OnTrackClickListener() {
+            @Override
+            public void onTrackClick(Track track, int pos) {
+                com.example.scplayer.utils.MiniPlayer.getInstance().setPlaylist(libraryAdapter.getTracks(), pos);
+            }
+
+            @Override
+            public void onLikeClick(Track track, int pos, boolean isLiked) {
+                toggleLike(track, isLiked);
+            }
+        });
+        libraryResults.setLayoutManager(new LinearLayoutManager(getContext()));
+        SharedViewPool.attach(libraryResults, requireActivity());
+        StreamSpeculator.attach(libraryResults);
+        libraryResults.setAdapter(libraryAdapter);
+
         initializeLikeManagement();
         registerMiniPlayerListener();
         loadLikedTracks();
     }
 
+    // results live in the view model; a recreated view replays them without searching again
+    private void observeSearch() {
+        viewModel.getResults().observe(getViewLifecycleOwner(), tracks -> {
+            if (tracks.isEmpty()) {
+                adapter.clearTracks();
+            } else {
+                adapter.setTracks(tracks);
+            }
+        });
+        viewModel.getLibraryHits().observe(getViewLifecycleOwner(), hits -> {
+            if (hits.isEmpty()) {
+                libraryAdapter.clearTracks();
+                libraryHeader.setVisibility(View.GONE);
+                libraryResults.setVisibility(View.GONE);
+            } else {
+                libraryAdapter.setTracks(hits);
+                libraryHeader.setVisibility(View.VISIBLE);
+                libraryResults.setVisibility(View.VISIBLE);
+            }
+        });
+        viewModel.isEmpty().observe(getViewLifecycleOwner(), this::showEmpty);
+    }
+
     private void setupSearch() {
         input.addTextChangedListener(new TextWatcher() {
             @Override
@@ -89,63 +133,20 @@ public class SearchFragment extends BaseTrackFragment implements SearchResultAda
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
                 clear.setVisibility(s.length() > 0 ? View.VISIBLE : View.GONE);
-
-                if (runnable != null) {
-                    handler.removeCallbacks(runnable);
-                }
-
-                if (s.length() > 0) {
-                    runnable = () -> performSearch(s.toString());
-                    handler.postDelayed(runnable, ApiConstants.SEARCH_DEBOUNCE_DELAY_MS);
-                } else {
-                    adapter.clearTracks();
-                    showEmpty(true);
-                }
+                viewModel.onQueryChanged(s.toString());
             }
 
             @Override
             public void afterTextChanged(Editable s) {}
         });
 
-        clear.setOnClickListener(v -> {
-            input.setText("");
-            adapter.clearTracks();
-            showEmpty(true);
-        });
+        clear.setOnClickListener(v -> input.setText(""));
     }
 
-    private void performSearch(String q) {
-        showEmpty(false);
-
-        Call<List<Track>> call = api.searchTracks(q.trim(), ApiConstants.SEARCH_RESULTS_LIMIT, 0);
-
-        call.enqueue(new Callback<List<Track>>() {
-            @Override
-            public void onResponse(Call<List<Track>> call, Response<List<Track>> res) {
-                if (res.isSuccessful() && res.body() != null) {
-                    List<Track> tracks = res.body();
-
-                    if (!tracks.isEmpty()) {
-                        adapter.setTracks(tracks);
-                        showEmpty(false);
-                    } else {
-                        adapter.clearTracks();
-                        showEmpty(true);
-                        Log.d("SearchFragment", "No tracks found");
-                    }
-                } else {
-                    adapter.clearTracks();
-                    showEmpty(true);
-                    Log.d("SearchFragment", "Search failed: " + res.code());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<Track>> call, Throwable t) {
-                showEmpty(true);
-                Log.d("SearchFragment", "Network error: " + t.getMessage());
-            }
-        });
+    @Override
+    protected void onLikedTracksLoaded(List<Long> likedTrackIds) {
+        super.onLikedTracksLoaded(likedTrackIds);
+        libraryAdapter.setLikedTrackIds(likedTrackIds);
     }
 
     private void showEmpty(boolean show) {
@@ -167,11 +168,5 @@ public class SearchFragment extends BaseTrackFragment implements SearchResultAda
         Toast.makeText(getContext(), message, Toast.LENGTH_SHORT).show();
     }
 
-    @Override
-    public void onDestroyView() {
-        super.onDestroyView();
-        handler.removeCallbacks(runnable);
-    }
-
 
 }
@@ -87,4 +87,8 @@ public class Playlist implements Serializable {
     public String getUrn() {
         return urn;
     }
+
+    public void setUrn(String urn) {
+        this.urn = urn;
+    }
 }
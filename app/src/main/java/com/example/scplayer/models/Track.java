@@ -39,16 +39,35 @@ public class Track implements Serializable {
     public long getDuration() {
         return duration;
     }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
     public String getArtworkUrl() {
         return artworkUrl;
     }
+
+    public void setArtworkUrl(String artworkUrl) {
+        this.artworkUrl = artworkUrl;
+    }
+
     public User getUser() {
         return user;
     }
 
+    public void setUser(User user) {
+        this.user = user;
+    }
+
     public String getPermalinkUrl() {
         return permalinkUrl;
     }
+
+    public void setPermalinkUrl(String permalinkUrl) {
+        this.permalinkUrl = permalinkUrl;
+    }
+
     public String getHighQualityArtworkUrl() {
         return ImageUtils.getHighQualityArtworkUrl(artworkUrl);
     }
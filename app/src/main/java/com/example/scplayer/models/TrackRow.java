@@ -0,0 +1,38 @@
+package com.example.scplayer.models;
+
+import com.example.scplayer.data.TrackList;
+import com.example.scplayer.utils.ImageUtils;
+import com.example.scplayer.utils.TimeUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// precomputed row text so binding a track row does no formatting
+public class TrackRow {
+    public final long id;
+    public final String title;
+    public final String artist;
+    public final String duration;
+    public final String artworkUrl;
+    public boolean liked;
+
+    public TrackRow(TrackList tracks, int index, boolean liked) {
+        User user = tracks.getUser(index);
+        this.id = tracks.getId(index);
+        this.title = tracks.getTitle(index);
+        this.artist = user != null ? user.getUsername() : "Unknown Artist";
+        this.duration = TimeUtils.formatDuration(tracks.getDuration(index));
+        this.artworkUrl = ImageUtils.getMediumQualityArtworkUrl(tracks.getArtworkUrl(index));
+        this.liked = liked;
+    }
+
+    // reads the table columns directly, no Track objects are built
+    public static List<TrackRow> fromTracks(TrackList tracks, Collection<Long> likedTrackIds) {
+        List<TrackRow> rows = new ArrayList<>(tracks.size());
+        for (int i = 0; i < tracks.size(); i++) {
+            rows.add(new TrackRow(tracks, i, likedTrackIds.contains(tracks.getId(i))));
+        }
+        return rows;
+    }
+}
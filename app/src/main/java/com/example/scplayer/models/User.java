@@ -21,4 +21,8 @@ public class User implements Serializable {
     public String getUsername() {
         return username;
     }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
 }
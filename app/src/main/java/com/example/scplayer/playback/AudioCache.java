@@ -0,0 +1,111 @@
+package com.example.scplayer.playback;
+
+import android.content.Context;
+
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.PriorityTaskManager;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.ContentMetadata;
+import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
+import androidx.media3.datasource.cache.SimpleCache;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
+
+import com.example.scplayer.api.ApiClient;
+
+import java.io.File;
+
+// one disk cache for all audio, shared by the player and the precacher. stream urls are signed
+// and change on every resolution, so entries are keyed by track id instead of url
+@OptIn(markerClass = UnstableApi.class)
+public class AudioCache {
+    private static final long MAX_BYTES = 512L * 1024 * 1024;
+
+    private static AudioCache instance;
+
+    private final SimpleCache cache;
+    // playback runs at PRIORITY_PLAYBACK, so downloads pause while a track is buffering
+    private final PriorityTaskManager priorities = new PriorityTaskManager();
+    private final CacheDataSource.Factory playbackFactory;
+    private final CacheDataSource.Factory downloadFactory;
+
+    private AudioCache(Context context) {
+        File dir = new File(context.getCacheDir(), "audio");
+        cache = new SimpleCache(dir, new LeastRecentlyUsedCacheEvictor(MAX_BYTES),
+                new StandaloneDatabaseProvider(context));
+
+        // streams go through the shared client, so they reuse its pool, dns cache and metrics
+        OkHttpDataSource.Factory upstream = new OkHttpDataSource.Factory(ApiClient.getHttpClient());
+        playbackFactory = new CacheDataSource.Factory()
+                .setCache(cache)
+                .setUpstreamDataSourceFactory(upstream)
+                .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+        downloadFactory = new CacheDataSource.Factory()
+                .setCache(cache)
+                .setUpstreamDataSourceFactory(upstream)
+                .setUpstreamPriorityTaskManager(priorities)
+                .setUpstreamPriority(C.PRIORITY_DOWNLOAD);
+    }
+
+    // opens the cache index, which reads from disk; call off the main thread when possible
+    public static synchronized AudioCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new AudioCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public static String cacheKey(long trackId) {
+        return "track:" + trackId;
+    }
+
+    // only progressive files are keyed by track id; an hls playlist points at signed segment urls
+    // that expire, so it's cached (if at all) under its own url
+    public static boolean isProgressive(String streamUrl) {
+        return streamUrl != null && !streamUrl.contains(".m3u8") && !streamUrl.contains("/hls");
+    }
+
+    public CacheDataSource.Factory getPlaybackFactory() {
+        return playbackFactory;
+    }
+
+    public PriorityTaskManager getPriorityTaskManager() {
+        return priorities;
+    }
+
+    // for CacheWriter; yields to playback through the priority task manager
+    public CacheDataSource createDownloadDataSource() {
+        return downloadFactory.createDataSourceForDownloading();
+    }
+
+    public DataSpec dataSpec(long trackId, String streamUrl, long length) {
+        return new DataSpec.Builder()
+                .setUri(streamUrl)
+                .setKey(cacheKey(trackId))
+                .setLength(length)
+                .build();
+    }
+
+    public long getCachedBytes(long trackId) {
+        return cache.getCachedBytes(cacheKey(trackId), 0, C.LENGTH_UNSET);
+    }
+
+    // bytes cached without a gap from the start, up to maxLength
+    public long getCachedLength(long trackId, long maxLength) {
+        return cache.getCachedLength(cacheKey(trackId), 0, maxLength);
+    }
+
+    // the length is only known once a download (or playback) has reached the end of the response
+    public boolean isFullyCached(long trackId) {
+        String key = cacheKey(trackId);
+        long length = ContentMetadata.getContentLength(cache.getContentMetadata(key));
+        return length != C.LENGTH_UNSET && cache.isCached(key, 0, length);
+    }
+
+    public void remove(long trackId) {
+        cache.removeResource(cacheKey(trackId));
+    }
+}
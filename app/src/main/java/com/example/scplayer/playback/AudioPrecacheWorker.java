@@ -0,0 +1,66 @@
+package com.example.scplayer.playback;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.auth.AuthSession;
+
+import java.util.concurrent.TimeUnit;
+
+// runs the AudioPrecacher policy on wifi while charging. a stop from the system cancels the
+// download in progress; whatever was written stays in the cache for next time
+public class AudioPrecacheWorker extends Worker {
+    private static final String WORK_NAME = "audio-precache";
+    private static final long INTERVAL_HOURS = 12;
+
+    public AudioPrecacheWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    // KEEP, so calling this on every start doesn't reset the schedule
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresCharging(true)
+                .setRequiresStorageNotLow(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(AudioPrecacheWorker.class,
+                INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    public static void cancel(Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        // the process may have been started just for this job
+        ApiClient.initialize(context);
+        if (!AuthSession.getInstance(context).isLoggedIn()) {
+            return Result.success();
+        }
+
+        AudioPrecacher.getInstance(context).precache(this::isStopped);
+        return Result.success();
+    }
+
+    @Override
+    public void onStopped() {
+        AudioPrecacher.getInstance(getApplicationContext()).cancel();
+    }
+}
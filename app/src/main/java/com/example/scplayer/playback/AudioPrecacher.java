@@ -0,0 +1,228 @@
+package com.example.scplayer.playback;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.cache.CacheWriter;
+
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.api.SoundCloudApi;
+import com.example.scplayer.data.LibraryStore;
+import com.example.scplayer.data.TrackList;
+import com.example.scplayer.models.TrackStream;
+import com.example.scplayer.utils.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import retrofit2.Response;
+
+// decides which tracks are worth having on disk before they're played (most played, newest likes,
+// the start of recently opened playlists) and downloads them into the audio cache within a byte
+// budget. also counts how many playback starts found their audio already cached
+@OptIn(markerClass = UnstableApi.class)
+public class AudioPrecacher {
+    private static final Logger log = Logger.get(Logger.Subsystem.PLAYBACK, "AudioPrecacher");
+
+    private static final String PREFS_NAME = "AudioPrecache";
+    private static final String KEY_BUDGET = "budget_bytes";
+    private static final String KEY_PRECACHED = "precached";
+    private static final String KEY_STARTS = "starts";
+    private static final String KEY_CACHED_STARTS = "cached_starts";
+    private static final String KEY_PRECACHED_STARTS = "precached_starts";
+
+    public static final long DEFAULT_BUDGET_BYTES = 200L * 1024 * 1024;
+    private static final int MOST_PLAYED = 10;
+    private static final int RECENT_LIKES = 10;
+    private static final int RECENT_PLAYLISTS = 3;
+    private static final int PLAYLIST_HEAD = 3;
+
+    private static AudioPrecacher instance;
+
+    private final SharedPreferences prefs;
+    private final LibraryStore store;
+    private final AudioCache cache;
+    private final SoundCloudApi api;
+    private volatile CacheWriter current;
+
+    public static class Stats {
+        public final long starts;
+        public final long cachedStarts;
+        public final long precachedStarts;
+
+        Stats(long starts, long cachedStarts, long precachedStarts) {
+            this.starts = starts;
+            this.cachedStarts = cachedStarts;
+            this.precachedStarts = precachedStarts;
+        }
+
+        public float precachedRate() {
+            return starts == 0 ? 0 : (float) precachedStarts / starts;
+        }
+
+        @Override
+        public String toString() {
+            return starts + " starts, " + cachedStarts + " from cache, " + precachedStarts + " precached";
+        }
+    }
+
+    private AudioPrecacher(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        store = LibraryStore.getInstance(context);
+        cache = AudioCache.getInstance(context);
+        api = ApiClient.getSoundCloudApi();
+    }
+
+    public static synchronized AudioPrecacher getInstance(Context context) {
+        if (instance == null) {
+            instance = new AudioPrecacher(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public long getBudgetBytes() {
+        return prefs.getLong(KEY_BUDGET, DEFAULT_BUDGET_BYTES);
+    }
+
+    public void setBudgetBytes(long bytes) {
+        prefs.edit().putLong(KEY_BUDGET, Math.max(0, bytes)).apply();
+    }
+
+    // in priority order: what's played most, then the newest likes, then the first tracks of the
+    // playlists opened last. blocking, reads the store
+    public List<Long> candidates() {
+        Set<Long> ids = new LinkedHashSet<>(store.getMostPlayedTrackIds(MOST_PLAYED));
+        List<Long> liked = store.getLikedTrackIds();
+        ids.addAll(liked.subList(0, Math.min(RECENT_LIKES, liked.size())));
+        for (long playlistId : store.getRecentlyOpenedPlaylistIds(RECENT_PLAYLISTS)) {
+            TrackList tracks = store.getPlaylistTracks(playlistId);
+            for (int i = 0; i < Math.min(PLAYLIST_HEAD, tracks.size()); i++) {
+                ids.add(tracks.getId(i));
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    // downloads candidates until the budget is used up; tracks already on disk count towards it.
+    // blocking, returns how many tracks were downloaded
+    public int precache(BooleanSupplier stopped) {
+        long budget = getBudgetBytes();
+        long used = 0;
+        int downloaded = 0;
+        Set<String> precached = precachedIds();
+
+        for (long trackId : candidates()) {
+            if (stopped.getAsBoolean() || used >= budget) break;
+
+            if (cache.isFullyCached(trackId)) {
+                // possibly cached by playback; only bytes written here make a track precached
+                used += cache.getCachedBytes(trackId);
+                continue;
+            }
+
+            String url = resolveProgressiveUrl(trackId);
+            if (url == null) continue;
+
+            long before = cache.getCachedBytes(trackId);
+            long allowed = budget - used;
+            CacheWriter writer = new CacheWriter(cache.createDownloadDataSource(),
+                    cache.dataSpec(trackId, url, C.LENGTH_UNSET), null,
+                    (requestLength, bytesCached, newBytesCached) -> {
+                        // the last track may not fit; what's written so far still makes it start faster
+                        if (bytesCached - before > allowed) {
+                            cancel();
+                        }
+                    });
+            current = writer;
+            try {
+                writer.cache();
+                downloaded++;
+            } catch (IOException e) {
+                log.d(() -> "Precache of " + trackId + " stopped: " + e.getMessage());
+            } finally {
+                current = null;
+            }
+            long after = cache.getCachedBytes(trackId);
+            used += after;
+            if (after > before) {
+                precached.add(String.valueOf(trackId));
+            }
+        }
+
+        prefs.edit().putStringSet(KEY_PRECACHED, precached).apply();
+        long total = used;
+        int count = downloaded;
+        log.i(() -> "Precached " + count + " tracks, " + total / 1024 + " KB in use; " + getStats());
+        return downloaded;
+    }
+
+    // ids precached by earlier runs whose audio is still on disk. a copy: the set
+    // getStringSet returns must not be modified
+    private Set<String> precachedIds() {
+        Set<String> ids = new HashSet<>(prefs.getStringSet(KEY_PRECACHED, new HashSet<>()));
+        ids.removeIf(id -> cache.getCachedBytes(Long.parseLong(id)) == 0);
+        return ids;
+    }
+
+    public void cancel() {
+        CacheWriter writer = current;
+        if (writer != null) {
+            writer.cancel();
+        }
+    }
+
+    // hls would need every segment fetched separately; only progressive streams are precached
+    private String resolveProgressiveUrl(long trackId) {
+        try {
+            Response<TrackStream> res = api.prefetchTrackStreams("soundcloud:tracks:" + trackId, null).execute();
+            if (!res.isSuccessful() || res.body() == null) return null;
+            String url = res.body().getBestStreamUrl();
+            return AudioCache.isProgressive(url) ? url : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // called before playback of a track asks for its stream, off the main thread: the cache
+    // lookup contends with running downloads. the counters are written with apply()
+    public void recordPlaybackStart(long trackId) {
+        boolean cached = cache.getCachedBytes(trackId) > 0;
+        boolean precached = cached && prefs.getStringSet(KEY_PRECACHED, new HashSet<>())
+                .contains(String.valueOf(trackId));
+        synchronized (this) {
+            SharedPreferences.Editor edit = prefs.edit()
+                    .putLong(KEY_STARTS, prefs.getLong(KEY_STARTS, 0) + 1);
+            if (cached) {
+                edit.putLong(KEY_CACHED_STARTS, prefs.getLong(KEY_CACHED_STARTS, 0) + 1);
+            }
+            if (precached) {
+                edit.putLong(KEY_PRECACHED_STARTS, prefs.getLong(KEY_PRECACHED_STARTS, 0) + 1);
+            }
+            edit.apply();
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(prefs.getLong(KEY_STARTS, 0),
+                prefs.getLong(KEY_CACHED_STARTS, 0),
+                prefs.getLong(KEY_PRECACHED_STARTS, 0));
+    }
+
+    // the budget is a setting and survives logout
+    public void clear() {
+        prefs.edit()
+                .remove(KEY_PRECACHED)
+                .remove(KEY_STARTS)
+                .remove(KEY_CACHED_STARTS)
+                .remove(KEY_PRECACHED_STARTS)
+                .apply();
+    }
+}
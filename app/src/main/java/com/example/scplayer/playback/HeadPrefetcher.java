@@ -0,0 +1,135 @@
+package com.example.scplayer.playback;
+
+import android.content.Context;
+
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.cache.CacheWriter;
+
+import com.example.scplayer.utils.Logger;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// downloads only the first few seconds of tracks that are about to play (the next queue items,
+// rows the user is likely to tap) into the audio cache. the player starts from those bytes and
+// streams the rest. cheap enough for cellular, and every prefetch can be cancelled
+@OptIn(markerClass = UnstableApi.class)
+public class HeadPrefetcher {
+    private static final Logger log = Logger.get(Logger.Subsystem.PLAYBACK, "HeadPrefetcher");
+
+    // about 15 seconds of 128 kbps mp3
+    public static final long HEAD_BYTES = 256 * 1024;
+
+    private static HeadPrefetcher instance;
+
+    private final AudioCache cache;
+    private final StreamResolver resolver = StreamResolver.getInstance();
+    // one download at a time, at download priority; playback always wins the bandwidth
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "scplayer-prefetch");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final Map<Long, Task> tasks = new HashMap<>();
+
+    // the queue and the screens may both want the same track; it's only cancelled once nobody does
+    private static class Task {
+        int requests = 1;
+        volatile boolean cancelled;
+        volatile CacheWriter writer;
+        Future<?> future;
+
+        void cancel() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+            CacheWriter w = writer;
+            if (w != null) {
+                w.cancel();
+            }
+        }
+    }
+
+    private HeadPrefetcher(Context context) {
+        cache = AudioCache.getInstance(context);
+    }
+
+    public static synchronized HeadPrefetcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new HeadPrefetcher(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public boolean hasHead(long trackId) {
+        return cache.getCachedLength(trackId, HEAD_BYTES) >= HEAD_BYTES;
+    }
+
+    // resolves the stream and caches its head, unless that's already on disk. every call that
+    // started or joined a prefetch should be paired with cancel() once the track is no longer likely
+    public synchronized void prefetch(long trackId) {
+        Task existing = tasks.get(trackId);
+        if (existing != null) {
+            existing.requests++;
+            return;
+        }
+        if (hasHead(trackId)) return;
+
+        Task task = new Task();
+        tasks.put(trackId, task);
+        resolver.prefetch(trackId).whenComplete((url, error) -> {
+            // hls would need its first segments fetched separately; the resolved url still saves the tap a call
+            if (task.cancelled || error != null || !AudioCache.isProgressive(url)) {
+                finish(trackId, task);
+                return;
+            }
+            synchronized (this) {
+                if (task.cancelled) return;
+                task.future = executor.submit(() -> download(trackId, url, task));
+            }
+        });
+    }
+
+    public synchronized void cancel(long trackId) {
+        Task task = tasks.get(trackId);
+        if (task != null && --task.requests <= 0) {
+            tasks.remove(trackId);
+            task.cancel();
+        }
+    }
+
+    public synchronized void cancelAll() {
+        for (Task task : tasks.values()) {
+            task.cancel();
+        }
+        tasks.clear();
+    }
+
+    private void download(long trackId, String url, Task task) {
+        if (task.cancelled) return;
+        CacheWriter writer = new CacheWriter(cache.createDownloadDataSource(),
+                cache.dataSpec(trackId, url, HEAD_BYTES), null, null);
+        task.writer = writer;
+        if (task.cancelled) return;
+        try {
+            writer.cache();
+            log.v(() -> "Head cached for " + trackId);
+        } catch (IOException e) {
+            log.v(() -> "Head prefetch of " + trackId + " stopped: " + e.getMessage());
+        } finally {
+            finish(trackId, task);
+        }
+    }
+
+    private synchronized void finish(long trackId, Task task) {
+        if (tasks.get(trackId) == task) {
+            tasks.remove(trackId);
+        }
+    }
+}
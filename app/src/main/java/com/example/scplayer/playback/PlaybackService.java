@@ -5,40 +5,43 @@ import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.app.Service;
+import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ServiceInfo;
 import android.os.Binder;
 import android.os.Build;
 import android.os.IBinder;
-import android.util.Log;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.ServiceCompat;
 import androidx.media3.common.MediaItem;
 import androidx.media3.common.PlaybackException;
 import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
 import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.source.DefaultMediaSourceFactory;
 
 import com.example.scplayer.HomeActivity;
 import com.example.scplayer.R;
-import com.example.scplayer.api.ApiClient;
-import com.example.scplayer.api.SoundCloudApi;
+import com.example.scplayer.api.ApiFutures;
+import com.example.scplayer.data.LibraryStore;
 import com.example.scplayer.models.Track;
-import com.example.scplayer.models.TrackStream;
+import com.example.scplayer.utils.AppExecutors;
+import com.example.scplayer.utils.Logger;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import retrofit2.HttpException;
 
 public class PlaybackService extends Service {
 
     private static final String TAG = "PlaybackService";
+    private static final Logger log = Logger.get(Logger.Subsystem.PLAYBACK, TAG);
     private static final String CHANNEL_ID = "playback_channel";
     private static final int NOTIFICATION_ID = 1;
     
     private ExoPlayer player;
-    private SoundCloudApi api;
+    private AudioCache audioCache;
     private final IBinder binder = new PlaybackBinder();
     private PlaybackListener listener;
     private Track currentTrack;
@@ -49,13 +52,17 @@ public class PlaybackService extends Service {
         }
     }
 
+    @OptIn(markerClass = UnstableApi.class)
     @Override
     public void onCreate() {
         super.onCreate();
+        // reads go through the audio cache, which streams over the shared http client
+        audioCache = AudioCache.getInstance(this);
         player = new ExoPlayer.Builder(this)
+                .setMediaSourceFactory(new DefaultMediaSourceFactory(audioCache.getPlaybackFactory()))
+                .setPriorityTaskManager(audioCache.getPriorityTaskManager())
                 .setWakeMode(android.os.PowerManager.PARTIAL_WAKE_LOCK)
                 .build();
-        api = ApiClient.getSoundCloudApi();
         
         createNotificationChannel();
         
@@ -75,7 +82,11 @@ public class PlaybackService extends Service {
 
             @Override
             public void onPlayerError(PlaybackException error) {
-                Log.e(TAG, "Playback error: " + error.getMessage());
+                log.e(() -> "Playback error: " + error.getMessage());
+                // the signed url may have expired; the next attempt resolves a new one
+                if (currentTrack != null) {
+                    StreamResolver.getInstance().invalidate(currentTrack.getId());
+                }
                 if (listener != null) {
                     listener.onError(error.getMessage());
                 }
@@ -86,7 +97,7 @@ public class PlaybackService extends Service {
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         if (intent != null && "ACTION_STOP".equals(intent.getAction())) {
-            Log.d(TAG, "Notification dismissed - stopping playback");
+            log.d(() -> "Notification dismissed - stopping playback");
             pause();
             if (listener != null) {
                 listener.onPlaybackStateChanged(false);
@@ -114,7 +125,7 @@ public class PlaybackService extends Service {
             NotificationManager manager = getSystemService(NotificationManager.class);
             if (manager != null) {
                 manager.createNotificationChannel(channel);
-                Log.d(TAG, "Notification channel created");
+                log.d(() -> "Notification channel created");
             }
         }
     }
@@ -128,7 +139,7 @@ public class PlaybackService extends Service {
             startForeground(NOTIFICATION_ID, notification);
         }
         
-        Log.d(TAG, "Started foreground service with notification");
+        log.d(() -> "Started foreground service with notification");
     }
 
     private void updateNotification() {
@@ -137,7 +148,7 @@ public class PlaybackService extends Service {
             NotificationManager manager = getSystemService(NotificationManager.class);
             if (manager != null) {
                 manager.notify(NOTIFICATION_ID, notification);
-                Log.d(TAG, "Notification updated");
+                log.v(() -> "Notification updated");
             }
         }
     }
@@ -172,7 +183,7 @@ public class PlaybackService extends Service {
                 .setPriority(NotificationCompat.PRIORITY_DEFAULT)
                 .setCategory(NotificationCompat.CATEGORY_SERVICE);
 
-        Log.d(TAG, "Building notification for: " + title + " by " + artist);
+        log.v(() -> "Building notification for: " + title + " by " + artist);
         
         return builder.build();
     }
@@ -182,44 +193,60 @@ public class PlaybackService extends Service {
         
         this.currentTrack = track;
         startForeground();
+        // the cache index and counter prefs stay off the main thread. queued ahead of the stream
+        // request, so it still sees the cache as it was before this playback
+        Context app = getApplicationContext();
+        long trackId = track.getId();
+        AppExecutors.background().execute(() -> AudioPrecacher.getInstance(app).recordPlaybackStart(trackId));
+        LibraryStore store = LibraryStore.getInstance(this);
+        store.runAsync(() -> store.recordPlay(track.getId()));
         
-        String trackUrn = "soundcloud:tracks:" + track.getId();
-        
-        api.getTrackStreams(trackUrn, null).enqueue(new Callback<TrackStream>() {
-            @Override
-            public void onResponse(Call<TrackStream> call, Response<TrackStream> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    String streamUrl = response.body().getBestStreamUrl();
-                    
-                    if (streamUrl != null && !streamUrl.isEmpty()) {
-                        MediaItem mediaItem = MediaItem.fromUri(streamUrl);
-                        player.setMediaItem(mediaItem);
-                        player.prepare();
-                        player.play();
-                        updateNotification();
-                        Log.d(TAG, "Playing: " + track.getTitle() + " from " + streamUrl);
-                    } else {
-                        Log.e(TAG, "No stream URL available");
-                        if (listener != null) {
-                            listener.onError("No stream available");
-                        }
+        // a url resolved by a prefetch is used right away, otherwise this waits on (or joins) the call
+        String resolved = StreamResolver.getInstance().peek(track.getId());
+        if (resolved != null) {
+            startStream(track, resolved);
+            return;
+        }
+
+        StreamResolver.getInstance().resolve(track.getId()).whenCompleteAsync((streamUrl, error) -> {
+            // another track was picked while this one resolved
+            if (player == null || currentTrack != track) return;
+
+            if (error != null) {
+                Throwable cause = ApiFutures.unwrap(error);
+                if (cause instanceof HttpException) {
+                    log.e(() -> "Failed to get streams: " + ((HttpException) cause).code());
+                    if (listener != null) {
+                        listener.onError("Failed to load stream");
                     }
                 } else {
-                    Log.e(TAG, "Failed to get streams: " + response.code());
+                    log.e(() -> "Network error: " + cause.getMessage());
                     if (listener != null) {
-                        listener.onError("Failed to load stream");
+                        listener.onError("Network error");
                     }
                 }
-            }
-
-            @Override
-            public void onFailure(Call<TrackStream> call, Throwable t) {
-                Log.e(TAG, "Network error: " + t.getMessage());
+            } else if (streamUrl != null && !streamUrl.isEmpty()) {
+                startStream(track, streamUrl);
+            } else {
+                log.e(() -> "No stream URL available");
                 if (listener != null) {
-                    listener.onError("Network error");
+                    listener.onError("No stream available");
                 }
             }
-        });
+        }, AppExecutors.main());
+    }
+
+    private void startStream(Track track, String streamUrl) {
+        MediaItem.Builder item = new MediaItem.Builder().setUri(streamUrl);
+        if (AudioCache.isProgressive(streamUrl)) {
+            // a prefetched head is picked up under the same key
+            item.setCustomCacheKey(AudioCache.cacheKey(track.getId()));
+        }
+        player.setMediaItem(item.build());
+        player.prepare();
+        player.play();
+        updateNotification();
+        log.d(() -> "Playing: " + track.getTitle() + " from " + streamUrl);
     }
 
     public void pause() {
@@ -0,0 +1,170 @@
+package com.example.scplayer.playback;
+
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.api.ApiFutures;
+import com.example.scplayer.api.CallRegistry;
+import com.example.scplayer.api.RateLimiter;
+import com.example.scplayer.api.SoundCloudApi;
+import com.example.scplayer.models.TrackStream;
+import com.example.scplayer.utils.ApiConstants;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// track id -> playable stream url. urls are signed and expire, so they're only kept briefly.
+// concurrent requests for the same track share one call, so a prefetch that's already resolving
+// a track saves the tap that follows it the round trip
+public class StreamResolver {
+    private static final long URL_TTL_MS = 5 * 60 * 1000;
+    private static final int MAX_ENTRIES = 64;
+
+    private static StreamResolver instance;
+
+    private final Map<Long, Entry> resolved = new HashMap<>();
+    private final Map<Long, CompletableFuture<String>> inFlight = new HashMap<>();
+    // request futures of resolutions nobody but a visible row is waiting for
+    private final Map<Long, CompletableFuture<?>> speculative = new HashMap<>();
+    // in-flight resolutions made as prefetches
+    private final Set<CompletableFuture<String>> prefetching = new HashSet<>();
+
+    private static class Entry {
+        final String url;
+        final long resolvedAt;
+
+        Entry(String url, long resolvedAt) {
+            this.url = url;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+
+    public static synchronized StreamResolver getInstance() {
+        if (instance == null) {
+            instance = new StreamResolver();
+        }
+        return instance;
+    }
+
+    // a url that's still fresh, or null
+    public synchronized String peek(long trackId) {
+        Entry entry = resolved.get(trackId);
+        if (entry == null) return null;
+        if (System.currentTimeMillis() - entry.resolvedAt > URL_TTL_MS) {
+            resolved.remove(trackId);
+            return null;
+        }
+        return entry.url;
+    }
+
+    // completes with null when the track has no stream; fails when the call did
+    public CompletableFuture<String> resolve(long trackId) {
+        return resolve(trackId, false, false);
+    }
+
+    // for prefetches: the call is rate limited as PREFETCH, so it never eats into what taps need
+    public CompletableFuture<String> prefetch(long trackId) {
+        return resolve(trackId, true, false);
+    }
+
+    // the same, but cancellable through cancelSpeculative() until someone resolves it for real
+    public CompletableFuture<String> speculate(long trackId) {
+        return resolve(trackId, true, true);
+    }
+
+    // a row that scrolled away doesn't need its url any more; a tap or prefetch that joined keeps it
+    public void cancelSpeculative(long trackId) {
+        CompletableFuture<?> call;
+        synchronized (this) {
+            call = speculative.remove(trackId);
+            if (call == null) return;
+            inFlight.remove(trackId);
+        }
+        // cancelling the request future also cancels the http call behind it
+        call.cancel(false);
+    }
+
+    private CompletableFuture<String> resolve(long trackId, boolean background, boolean speculate) {
+        String cached = peek(trackId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<String> future;
+        synchronized (this) {
+            CompletableFuture<String> pending = inFlight.get(trackId);
+            if (pending != null) {
+                if (!speculate) {
+                    speculative.remove(trackId);
+                }
+                if (background || !prefetching.contains(pending)) return pending;
+                return joinPrefetch(trackId, pending);
+            }
+
+            String urn = "soundcloud:tracks:" + trackId;
+            SoundCloudApi api = ApiClient.getSoundCloudApi();
+            CompletableFuture<TrackStream> call = ApiFutures.withTimeout(ApiFutures.call(CallRegistry.unscoped(),
+                            background ? api.prefetchTrackStreams(urn, null) : api.getTrackStreams(urn, null)),
+                    ApiConstants.REQUEST_TIMEOUT_MS);
+            future = call.thenApply(TrackStream::getBestStreamUrl);
+            inFlight.put(trackId, future);
+            if (background) {
+                prefetching.add(future);
+            }
+            if (speculate) {
+                speculative.put(trackId, call);
+            }
+        }
+
+        future.whenComplete((url, error) -> {
+            synchronized (this) {
+                if (inFlight.get(trackId) == future) {
+                    inFlight.remove(trackId);
+                    speculative.remove(trackId);
+                }
+                prefetching.remove(future);
+                if (url != null && !url.isEmpty()) {
+                    if (resolved.size() >= MAX_ENTRIES) {
+                        evictExpired();
+                    }
+                    resolved.put(trackId, new Entry(url, System.currentTimeMillis()));
+                }
+            }
+        });
+        return future;
+    }
+
+    // a tap that joined a prefetch the limiter turned away resolves the track itself
+    private CompletableFuture<String> joinPrefetch(long trackId, CompletableFuture<String> pending) {
+        return pending.handle((url, error) -> {
+            if (error == null) return CompletableFuture.completedFuture(url);
+            if (!(ApiFutures.unwrap(error) instanceof RateLimiter.RateLimitedException)) {
+                return pending;
+            }
+            synchronized (this) {
+                if (inFlight.get(trackId) == pending) {
+                    inFlight.remove(trackId);
+                }
+            }
+            return resolve(trackId);
+        }).thenCompose(f -> f);
+    }
+
+    // e.g. after the player failed on it; the next resolve asks the api again
+    public synchronized void invalidate(long trackId) {
+        resolved.remove(trackId);
+    }
+
+    public synchronized void clear() {
+        resolved.clear();
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        resolved.values().removeIf(entry -> now - entry.resolvedAt > URL_TTL_MS);
+        if (resolved.size() >= MAX_ENTRIES) {
+            resolved.clear();
+        }
+    }
+}
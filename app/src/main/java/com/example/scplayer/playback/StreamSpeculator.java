@@ -0,0 +1,181 @@
+package com.example.scplayer.playback;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.scplayer.adapters.BaseTrackAdapter;
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.utils.AppExecutors;
+import com.example.scplayer.utils.Logger;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// resolves the stream of track rows that stay on screen for a moment, so a tap finds the url in
+// StreamResolver instead of waiting for the call. a row that scrolls away cancels its resolution.
+// on touch-down the row jumps the queue, or if its url is known, the stream host gets a warm connection.
+// all lists share one budget: a couple of calls at a time and a per-minute quota. main thread only
+public class StreamSpeculator extends RecyclerView.SimpleOnItemTouchListener
+        implements RecyclerView.OnChildAttachStateChangeListener, View.OnAttachStateChangeListener {
+    private static final Logger log = Logger.get(Logger.Subsystem.PLAYBACK, "StreamSpeculator");
+
+    // long enough that a fling passes by without resolving anything
+    private static final long DWELL_MS = 700;
+    private static final int MAX_IN_FLIGHT = 2;
+    private static final int QUOTA_PER_WINDOW = 20;
+    private static final long QUOTA_WINDOW_MS = 60_000;
+
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+    private static final StreamResolver resolver = StreamResolver.getInstance();
+    private static final ArrayDeque<Long> queue = new ArrayDeque<>();
+    private static final Set<Long> inFlight = new HashSet<>();
+    // start times of the calls made in the current window
+    private static final ArrayDeque<Long> started = new ArrayDeque<>();
+    private static boolean pumpScheduled;
+
+    private final RecyclerView recyclerView;
+    private final Map<View, Runnable> dwelling = new HashMap<>();
+    // rows whose speculation this list asked for
+    private final Map<View, Long> requested = new HashMap<>();
+
+    private StreamSpeculator(RecyclerView recyclerView) {
+        this.recyclerView = recyclerView;
+    }
+
+    // works with any BaseTrackAdapter set on the list, now or later
+    public static void attach(RecyclerView recyclerView) {
+        StreamSpeculator speculator = new StreamSpeculator(recyclerView);
+        recyclerView.addOnChildAttachStateChangeListener(speculator);
+        recyclerView.addOnItemTouchListener(speculator);
+        recyclerView.addOnAttachStateChangeListener(speculator);
+    }
+
+    @Override
+    public void onChildViewAttachedToWindow(@NonNull View view) {
+        Runnable dwell = () -> {
+            dwelling.remove(view);
+            // the holder may have been rebound since it came on screen
+            long trackId = trackIdOf(view);
+            if (trackId < 0 || resolver.peek(trackId) != null) return;
+            requested.put(view, trackId);
+            request(trackId, false);
+        };
+        dwelling.put(view, dwell);
+        handler.postDelayed(dwell, DWELL_MS);
+    }
+
+    @Override
+    public void onChildViewDetachedFromWindow(@NonNull View view) {
+        Runnable dwell = dwelling.remove(view);
+        if (dwell != null) {
+            handler.removeCallbacks(dwell);
+        }
+        Long trackId = requested.remove(view);
+        if (trackId != null) {
+            cancel(trackId);
+        }
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+        if (e.getActionMasked() != MotionEvent.ACTION_DOWN) return false;
+        View child = rv.findChildViewUnder(e.getX(), e.getY());
+        if (child == null) return false;
+        long trackId = trackIdOf(child);
+        if (trackId < 0) return false;
+
+        String url = resolver.peek(trackId);
+        if (url != null) {
+            ApiClient.warmHost(url);
+        } else {
+            requested.put(child, trackId);
+            request(trackId, true);
+        }
+        // never consumes the touch; the click still lands on the row
+        return false;
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull View v) {
+    }
+
+    // the list left the screen without its rows being detached one by one
+    @Override
+    public void onViewDetachedFromWindow(@NonNull View v) {
+        for (Runnable dwell : dwelling.values()) {
+            handler.removeCallbacks(dwell);
+        }
+        dwelling.clear();
+        for (long trackId : requested.values()) {
+            cancel(trackId);
+        }
+        requested.clear();
+    }
+
+    private long trackIdOf(View view) {
+        RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(view);
+        if (holder == null || !(holder.getBindingAdapter() instanceof BaseTrackAdapter)) return -1;
+        return ((BaseTrackAdapter) holder.getBindingAdapter()).getTrackId(holder.getBindingAdapterPosition());
+    }
+
+    // a touched row goes to the front of the queue
+    private static void request(long trackId, boolean urgent) {
+        if (inFlight.contains(trackId)) return;
+        if (queue.remove(trackId) || urgent) {
+            queue.addFirst(trackId);
+        } else {
+            queue.addLast(trackId);
+        }
+        pump();
+    }
+
+    private static void cancel(long trackId) {
+        if (queue.remove(trackId)) return;
+        if (inFlight.contains(trackId)) {
+            // a tap that joined the resolution keeps it alive; see StreamResolver.cancelSpeculative
+            resolver.cancelSpeculative(trackId);
+        }
+    }
+
+    private static void pump() {
+        long now = SystemClock.elapsedRealtime();
+        while (!started.isEmpty() && now - started.peekFirst() >= QUOTA_WINDOW_MS) {
+            started.pollFirst();
+        }
+
+        while (inFlight.size() < MAX_IN_FLIGHT && !queue.isEmpty()) {
+            if (started.size() >= QUOTA_PER_WINDOW) {
+                // out of quota; try again once the oldest call leaves the window
+                if (!pumpScheduled) {
+                    pumpScheduled = true;
+                    handler.postDelayed(() -> {
+                        pumpScheduled = false;
+                        pump();
+                    }, started.peekFirst() + QUOTA_WINDOW_MS - now);
+                }
+                return;
+            }
+
+            long trackId = queue.pollFirst();
+            if (resolver.peek(trackId) != null) continue;
+            started.addLast(now);
+            inFlight.add(trackId);
+            resolver.speculate(trackId).whenCompleteAsync((url, error) -> {
+                inFlight.remove(trackId);
+                if (error != null) {
+                    log.v(() -> "Speculative resolve of " + trackId + " ended: " + error);
+                }
+                pump();
+            }, AppExecutors.main());
+        }
+    }
+}
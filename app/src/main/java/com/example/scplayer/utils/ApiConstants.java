@@ -5,13 +5,30 @@ public class ApiConstants {
     public static final int MAX_LIKED_TRACKS = 50;
     public static final int PLAYLIST_TRACKS_LIMIT = 50;
     public static final int SEARCH_RESULTS_LIMIT = 20;
+    public static final int LIBRARY_SEARCH_LIMIT = 5;
     public static final int USER_PLAYLISTS_LIMIT = 50;
     public static final int LIKED_PLAYLISTS_LIMIT = 50;
+    // playlist artwork lookups running at once during a library sync
+    public static final int ARTWORK_PARALLELISM = 4;
     public static final int PLAYLIST_GRID_COLUMNS = 2;
+    public static final long REQUEST_TIMEOUT_MS = 10_000;
 
     public static final long LIKED_SONGS_PLAYLIST_ID = -1;
+    public static final long RELATED_TRACKS_PLAYLIST_ID = -2;
+    // "more like" cards count down from here
+    public static final long RELATED_SEED_PLAYLIST_BASE_ID = -100;
+
+    // home feed: related tracks of the most recent likes
+    public static final int HOME_FEED_SEEDS = 5;
+    public static final int HOME_FEED_PARALLELISM = 3;
+    public static final int HOME_FEED_RELATED_LIMIT = 20;
+    public static final int HOME_FEED_MIX_SIZE = 30;
+    public static final int HOME_FEED_MIN_CARD_TRACKS = 5;
 
     public static final int SEARCH_DEBOUNCE_DELAY_MS = 500;
+    public static final int SEARCH_MIN_DEBOUNCE_MS = 150;
+    public static final int SEARCH_CACHE_SIZE = 32;
+    public static final long SEARCH_CACHE_TTL_MS = 5 * 60 * 1000;
     
     // SharedPreferences
     public static final String PREFS_NAME = "SoundCloudAuth";
@@ -0,0 +1,54 @@
+package com.example.scplayer.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AppExecutors {
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final ExecutorService background = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "scplayer-bg-" + threadCount.incrementAndGet());
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    // response post-processing: merging, dedupe, diffing and display models. one thread, so the
+    // results of one refresh are applied in the order they were produced
+    private static final ExecutorService data = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "scplayer-data");
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    // local store writes. one thread, so they apply in the order they were submitted: a sync
+    // can't overwrite a later like toggle, and nothing lands after the logout clear
+    private static final ExecutorService storeWrites = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "scplayer-store");
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final Executor main = mainHandler::post;
+
+    public static ExecutorService background() {
+        return background;
+    }
+
+    public static ExecutorService data() {
+        return data;
+    }
+
+    public static ExecutorService storeWrites() {
+        return storeWrites;
+    }
+
+    public static Executor main() {
+        return main;
+    }
+}
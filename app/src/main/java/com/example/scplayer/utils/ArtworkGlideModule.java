@@ -0,0 +1,59 @@
+package com.example.scplayer.utils;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.scplayer.api.ApiClient;
+
+import java.io.InputStream;
+
+@GlideModule
+public class ArtworkGlideModule extends AppGlideModule {
+    private static final String DISK_CACHE_DIR = "artwork";
+    private static final long DISK_CACHE_SIZE = 250L * 1024 * 1024;
+    private static final int DEFAULT_MEMORY_CLASS_MB = 64;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClass = am != null ? am.getMemoryClass() : DEFAULT_MEMORY_CLASS_MB;
+        boolean lowRam = am != null && am.isLowRamDevice();
+        long heap = memoryClass * 1024L * 1024L;
+
+        // 1/8 of the heap for decoded artwork, 1/16 for reusable bitmaps, halved on low ram devices
+        long memoryCache = heap / (lowRam ? 16 : 8);
+        long bitmapPool = heap / (lowRam ? 32 : 16);
+
+        builder.setMemoryCache(new LruResourceCache(memoryCache));
+        builder.setBitmapPool(new LruBitmapPool(bitmapPool));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_SIZE));
+
+        if (lowRam) {
+            builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+        }
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory(ApiClient.getHttpClient()));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
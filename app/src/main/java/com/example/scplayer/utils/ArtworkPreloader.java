@@ -0,0 +1,74 @@
+package com.example.scplayer.utils;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+// warms glide's memory cache for the next rows in the scroll direction
+public class ArtworkPreloader extends RecyclerView.OnScrollListener {
+    private static final int DEFAULT_PRELOAD_ROWS = 8;
+
+    private final ArtworkSource source;
+    private final int maxPreload;
+    private boolean forward = true;
+    private int preloadedFrom = -1;
+    private int preloadedTo = -1;
+
+    public interface ArtworkSource {
+        String getPreloadArtworkUrl(int position);
+        int getArtworkSize();
+        int getItemCount();
+    }
+
+    public ArtworkPreloader(ArtworkSource source) {
+        this(source, DEFAULT_PRELOAD_ROWS);
+    }
+
+    public ArtworkPreloader(ArtworkSource source, int maxPreload) {
+        this.source = source;
+        this.maxPreload = maxPreload;
+    }
+
+    public static void attach(RecyclerView recyclerView, ArtworkSource source) {
+        recyclerView.addOnScrollListener(new ArtworkPreloader(source));
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) return;
+        LinearLayoutManager lm = (LinearLayoutManager) recyclerView.getLayoutManager();
+
+        int first = lm.findFirstVisibleItemPosition();
+        int last = lm.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) return;
+
+        boolean nowForward = dx == 0 && dy == 0 ? forward : dx > 0 || dy > 0;
+        if (nowForward != forward) {
+            forward = nowForward;
+            preloadedFrom = -1;
+            preloadedTo = -1;
+        }
+
+        int count = source.getItemCount();
+        int from;
+        int to;
+        if (forward) {
+            from = last + 1;
+            to = Math.min(count, from + maxPreload);
+        } else {
+            to = first;
+            from = Math.max(0, to - maxPreload);
+        }
+        if (from >= to || source.getArtworkSize() <= 0) return;
+
+        for (int i = from; i < to; i++) {
+            if (i >= preloadedFrom && i < preloadedTo) continue;
+            String url = source.getPreloadArtworkUrl(i);
+            if (url != null && !url.isEmpty()) {
+                ImageUtils.preloadThumbnail(recyclerView.getContext(), url, source.getArtworkSize());
+            }
+        }
+        preloadedFrom = from;
+        preloadedTo = to;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.scplayer.utils;
 
+import com.example.scplayer.data.TrackList;
 import com.example.scplayer.models.Playlist;
 import com.example.scplayer.models.Track;
 
@@ -17,13 +18,18 @@ public class CollectionUtils {
         }
         
         for (int i = 0; i < oldTracks.size(); i++) {
-            if (oldTracks.get(i).getId() != newTracks.get(i).getId()) {
+            if (idAt(oldTracks, i) != idAt(newTracks, i)) {
                 return false;
             }
         }
         return true;
     }
 
+    // a TrackList answers from its id column instead of building a Track
+    private static long idAt(List<Track> tracks, int i) {
+        return tracks instanceof TrackList ? ((TrackList) tracks).getId(i) : tracks.get(i).getId();
+    }
+
     public static boolean arePlaylistsEqual(List<Playlist> oldPlaylists, List<Playlist> newPlaylists) {
         if (oldPlaylists == null || newPlaylists == null) {
             return oldPlaylists == newPlaylists;
@@ -1,18 +1,36 @@
 package com.example.scplayer.utils;
 
 import android.content.Context;
+import android.os.Build;
 import android.widget.ImageView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.scplayer.R;
 
 public class ImageUtils {
+    public static final int TRACK_THUMBNAIL_DP = 60;
+    // t300x300, anything bigger would only upscale
+    private static final int MEDIUM_ARTWORK_PX = 300;
+
+    // list thumbnails: hardware bitmaps keep pixels off the java heap on O+, RGB_565 below that.
+    // no transform so preloads and binds share the same cache key
+    private static final RequestOptions THUMBNAIL_OPTIONS = new RequestOptions()
+            .format(Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                    ? DecodeFormat.PREFER_ARGB_8888
+                    : DecodeFormat.PREFER_RGB_565)
+            .placeholder(R.drawable.ic_library)
+            .error(R.drawable.ic_library)
+            .dontTransform();
+
     public static String getHighQualityArtworkUrl(String artworkUrl) {
         if (artworkUrl != null) {
             return artworkUrl.replace("large", "t500x500");
         }
         return null;
     }
-    
+
     public static String getMediumQualityArtworkUrl(String artworkUrl) {
         if (artworkUrl != null) {
             return artworkUrl.replace("large", "t300x300")
@@ -32,4 +50,36 @@ public class ImageUtils {
             imageView.setImageResource(android.R.color.darker_gray);
         }
     }
+
+    public static void loadThumbnail(ImageView imageView, String artworkUrl, int sizePx) {
+        if (artworkUrl == null || artworkUrl.isEmpty()) {
+            Glide.with(imageView).clear(imageView);
+            imageView.setImageResource(R.drawable.ic_library);
+            return;
+        }
+
+        Glide.with(imageView)
+                .load(artworkUrl)
+                .apply(THUMBNAIL_OPTIONS)
+                .override(sizePx)
+                .into(imageView);
+    }
+
+    // same options and size as loadThumbnail so the bind hits the memory cache
+    public static void preloadThumbnail(Context context, String artworkUrl, int sizePx) {
+        Glide.with(context)
+                .load(artworkUrl)
+                .apply(THUMBNAIL_OPTIONS)
+                .override(sizePx)
+                .preload();
+    }
+
+    public static int dpToPx(Context context, int dp) {
+        return Math.round(dp * context.getResources().getDisplayMetrics().density);
+    }
+
+    public static int gridArtworkSize(Context context, int columns) {
+        int cell = context.getResources().getDisplayMetrics().widthPixels / Math.max(1, columns);
+        return Math.min(cell, MEDIUM_ARTWORK_PX);
+    }
 }
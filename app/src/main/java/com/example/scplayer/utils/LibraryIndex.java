@@ -0,0 +1,248 @@
+package com.example.scplayer.utils;
+
+import com.example.scplayer.data.TrackList;
+import com.example.scplayer.models.Track;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// on-device inverted index (token prefix -> track ids) over liked and loaded playlist tracks
+public class LibraryIndex {
+    public static final String SOURCE_LIKES = "likes";
+    private static final String PLAYLIST_PREFIX = "playlist:";
+
+    private static LibraryIndex instance;
+
+    private final Map<Long, Track> tracks = new HashMap<>();
+    private final Map<Long, String[]> tokensById = new HashMap<>();
+    private final TreeMap<String, Set<Long>> postings = new TreeMap<>();
+    // a track stays indexed while any source (likes, a playlist) still holds it
+    private final Map<String, Set<Long>> sources = new HashMap<>();
+    private final Map<Long, Integer> refCounts = new HashMap<>();
+
+    private LibraryIndex() {
+    }
+
+    public static synchronized LibraryIndex getInstance() {
+        if (instance == null) {
+            instance = new LibraryIndex();
+        }
+        return instance;
+    }
+
+    public static String playlistSource(String playlistKey) {
+        return PLAYLIST_PREFIX + playlistKey;
+    }
+
+    // replaces what a source holds, only the difference is (re)indexed
+    public synchronized void replaceSource(String source, Collection<Track> newTracks) {
+        if (newTracks instanceof TrackList) {
+            replaceSource(source, (TrackList) newTracks);
+            return;
+        }
+        Set<Long> previous = sources.get(source);
+        Set<Long> next = new HashSet<>();
+
+        for (Track track : newTracks) {
+            if (next.add(track.getId())) {
+                if (previous == null || !previous.contains(track.getId())) {
+                    retain(track);
+                } else {
+                    tracks.put(track.getId(), track);
+                }
+            }
+        }
+        if (previous != null) {
+            for (long id : previous) {
+                if (!next.contains(id)) {
+                    release(id);
+                }
+            }
+        }
+        sources.put(source, next);
+    }
+
+    // the same over table rows: a Track is only built for a row that isn't indexed yet or changed
+    private void replaceSource(String source, TrackList newTracks) {
+        Set<Long> previous = sources.get(source);
+        Set<Long> next = new HashSet<>();
+
+        for (int i = 0; i < newTracks.size(); i++) {
+            long id = newTracks.getId(i);
+            if (!next.add(id)) continue;
+            Track held = tracks.get(id);
+            boolean current = held != null
+                    && Objects.equals(held.getTitle(), newTracks.getTitle(i))
+                    && Objects.equals(held.getArtworkUrl(), newTracks.getArtworkUrl(i))
+                    && held.getDuration() == newTracks.getDuration(i)
+                    && held.getUser() == newTracks.getUser(i);
+            Track track = current ? held : newTracks.get(i);
+            if (previous == null || !previous.contains(id)) {
+                retain(track);
+            } else if (!current) {
+                tracks.put(id, track);
+            }
+        }
+        if (previous != null) {
+            for (long id : previous) {
+                if (!next.contains(id)) {
+                    release(id);
+                }
+            }
+        }
+        sources.put(source, next);
+    }
+
+    // drops the playlist sources whose playlist is no longer in the library
+    public synchronized void retainPlaylistSources(Collection<String> playlistKeys) {
+        Set<String> keep = new HashSet<>();
+        for (String key : playlistKeys) {
+            keep.add(playlistSource(key));
+        }
+        List<String> removed = new ArrayList<>();
+        for (String source : sources.keySet()) {
+            if (source.startsWith(PLAYLIST_PREFIX) && !keep.contains(source)) {
+                removed.add(source);
+            }
+        }
+        for (String source : removed) {
+            for (long id : sources.remove(source)) {
+                release(id);
+            }
+        }
+    }
+
+    public synchronized void addToSource(String source, Track track) {
+        Set<Long> ids = sources.get(source);
+        if (ids == null) {
+            ids = new HashSet<>();
+            sources.put(source, ids);
+        }
+        if (ids.add(track.getId())) {
+            retain(track);
+        }
+    }
+
+    public synchronized void removeFromSource(String source, long trackId) {
+        Set<Long> ids = sources.get(source);
+        if (ids != null && ids.remove(trackId)) {
+            release(trackId);
+        }
+    }
+
+    public synchronized void clear() {
+        tracks.clear();
+        tokensById.clear();
+        postings.clear();
+        sources.clear();
+        refCounts.clear();
+    }
+
+    public synchronized int size() {
+        return tracks.size();
+    }
+
+    // every query token must prefix-match a token of the title or artist
+    public synchronized List<Track> search(String query, int limit) {
+        String[] queryTokens = tokenize(query);
+        if (queryTokens.length == 0) return Collections.emptyList();
+
+        Set<Long> matches = null;
+        for (String token : queryTokens) {
+            Set<Long> ids = prefixMatches(token);
+            if (matches == null) {
+                matches = ids;
+            } else {
+                matches.retainAll(ids);
+            }
+            if (matches.isEmpty()) return Collections.emptyList();
+        }
+
+        List<Track> out = new ArrayList<>(matches.size());
+        for (long id : matches) {
+            out.add(tracks.get(id));
+        }
+        Collections.sort(out, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(
+                a.getTitle() != null ? a.getTitle() : "", b.getTitle() != null ? b.getTitle() : ""));
+        return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+    }
+
+    private Set<Long> prefixMatches(String prefix) {
+        Set<Long> ids = new HashSet<>();
+        SortedMap<String, Set<Long>> range = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        for (Set<Long> posting : range.values()) {
+            ids.addAll(posting);
+        }
+        return ids;
+    }
+
+    private void retain(Track track) {
+        long id = track.getId();
+        Integer count = refCounts.get(id);
+        refCounts.put(id, count == null ? 1 : count + 1);
+        tracks.put(id, track);
+        if (count == null) {
+            index(track);
+        }
+    }
+
+    private void release(long id) {
+        Integer count = refCounts.get(id);
+        if (count == null) return;
+        if (count > 1) {
+            refCounts.put(id, count - 1);
+            return;
+        }
+        refCounts.remove(id);
+        tracks.remove(id);
+        String[] tokens = tokensById.remove(id);
+        if (tokens != null) {
+            for (String token : tokens) {
+                Set<Long> posting = postings.get(token);
+                if (posting != null) {
+                    posting.remove(id);
+                    if (posting.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            }
+        }
+    }
+
+    private void index(Track track) {
+        String text = (track.getTitle() != null ? track.getTitle() : "") + " "
+                + (track.getUser() != null && track.getUser().getUsername() != null
+                ? track.getUser().getUsername() : "");
+        String[] tokens = tokenize(text);
+        tokensById.put(track.getId(), tokens);
+        for (String token : tokens) {
+            Set<Long> posting = postings.get(token);
+            if (posting == null) {
+                posting = new HashSet<>();
+                postings.put(token, posting);
+            }
+            posting.add(track.getId());
+        }
+    }
+
+    private static String[] tokenize(String text) {
+        String[] raw = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        Set<String> unique = new HashSet<>();
+        for (String token : raw) {
+            if (!token.isEmpty()) {
+                unique.add(token);
+            }
+        }
+        return unique.toArray(new String[0]);
+    }
+}
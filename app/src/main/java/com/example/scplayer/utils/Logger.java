@@ -0,0 +1,109 @@
+package com.example.scplayer.utils;
+
+import android.util.Log;
+
+import com.example.scplayer.BuildConfig;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// level-gated logging per subsystem. messages are suppliers, so a disabled level never builds
+// the string, and everything that is written goes through redact() first.
+// usage: private static final Logger log = Logger.get(Logger.Subsystem.AUTH, TAG);
+public final class Logger {
+    public enum Subsystem { AUTH, HTTP, PLAYBACK, LIBRARY, SEARCH, UI }
+
+    // ordered like android.util.Log priorities, NONE turns a subsystem off
+    public enum Level { VERBOSE, DEBUG, INFO, WARN, ERROR, NONE }
+
+    // copy-on-write so the level check on every call is a plain read
+    private static volatile Map<Subsystem, Level> levels;
+
+    private static final Pattern AUTH_HEADER =
+            Pattern.compile("(?i)\\b(OAuth|Bearer)\\s+[A-Za-z0-9._~+/=-]+");
+    private static final Pattern SECRET_PARAM = Pattern.compile(
+            "(?i)\\b(access_token|refresh_token|client_secret|code)([\"']?\\s*[:=]\\s*[\"']?)[^&\"'\\s,}]+");
+
+    static {
+        Map<Subsystem, Level> defaults = new EnumMap<>(Subsystem.class);
+        Level base = BuildConfig.DEBUG ? Level.DEBUG : Level.WARN;
+        for (Subsystem s : Subsystem.values()) {
+            defaults.put(s, base);
+        }
+        // request lines and headers in debug builds; bodies only when asked for with VERBOSE
+        defaults.put(Subsystem.HTTP, BuildConfig.DEBUG ? Level.INFO : Level.NONE);
+        levels = defaults;
+    }
+
+    private final Subsystem subsystem;
+    private final String tag;
+
+    private Logger(Subsystem subsystem, String tag) {
+        this.subsystem = subsystem;
+        this.tag = tag;
+    }
+
+    public static Logger get(Subsystem subsystem, String tag) {
+        return new Logger(subsystem, tag);
+    }
+
+    public static synchronized void setLevel(Subsystem subsystem, Level level) {
+        Map<Subsystem, Level> updated = new EnumMap<>(levels);
+        updated.put(subsystem, level);
+        levels = updated;
+    }
+
+    public static Level getLevel(Subsystem subsystem) {
+        return levels.get(subsystem);
+    }
+
+    public boolean isEnabled(Level level) {
+        Level min = getLevel(subsystem);
+        return min != Level.NONE && level.compareTo(min) >= 0;
+    }
+
+    public void v(Supplier<String> message) {
+        log(Level.VERBOSE, Log.VERBOSE, message, null);
+    }
+
+    public void d(Supplier<String> message) {
+        log(Level.DEBUG, Log.DEBUG, message, null);
+    }
+
+    public void i(Supplier<String> message) {
+        log(Level.INFO, Log.INFO, message, null);
+    }
+
+    public void w(Supplier<String> message) {
+        log(Level.WARN, Log.WARN, message, null);
+    }
+
+    public void w(Supplier<String> message, Throwable t) {
+        log(Level.WARN, Log.WARN, message, t);
+    }
+
+    public void e(Supplier<String> message) {
+        log(Level.ERROR, Log.ERROR, message, null);
+    }
+
+    public void e(Supplier<String> message, Throwable t) {
+        log(Level.ERROR, Log.ERROR, message, t);
+    }
+
+    private void log(Level level, int priority, Supplier<String> message, Throwable t) {
+        if (!isEnabled(level)) return;
+        String text = redact(message.get());
+        if (t != null) {
+            text += '\n' + Log.getStackTraceString(t);
+        }
+        Log.println(priority, tag, text);
+    }
+
+    public static String redact(String text) {
+        if (text == null) return "null";
+        String out = AUTH_HEADER.matcher(text).replaceAll("$1 ***");
+        return SECRET_PARAM.matcher(out).replaceAll("$1$2***");
+    }
+}
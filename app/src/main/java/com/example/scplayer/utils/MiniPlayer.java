@@ -6,22 +6,29 @@ import android.content.Intent;
 import android.content.ServiceConnection;
 import android.os.IBinder;
 
+import com.example.scplayer.data.TrackList;
 import com.example.scplayer.models.Track;
+import com.example.scplayer.playback.HeadPrefetcher;
 import com.example.scplayer.playback.PlaybackService;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 public class MiniPlayer implements PlaybackService.PlaybackListener {
     private static MiniPlayer instance;
     private Track currentTrack;
-    private List<Track> playlist;
+    // queue is a view over the track table, tracks are only built when they play
+    private TrackList playlist;
     private int currentIndex;
     private boolean isPlaying;
     private boolean isShuffleEnabled = false;
     private boolean isRepeatEnabled = false;
     private final List<StateListener> listeners;
-    private final List<Track> originalPlaylist;
+    private TrackList originalPlaylist;
+    private final Random random = new Random();
+    private static final int UPCOMING_PREFETCH = 2;
+    private List<Long> upcoming = new ArrayList<>();
 
     private PlaybackService playbackService;
     private boolean serviceBound = false;
@@ -56,8 +63,8 @@ public class MiniPlayer implements PlaybackService.PlaybackListener {
     };
 
     private MiniPlayer() {
-        this.playlist = new ArrayList<>();
-        this.originalPlaylist = new ArrayList<>();
+        this.playlist = TrackList.empty();
+        this.originalPlaylist = TrackList.empty();
         this.currentIndex = -1;
         this.isPlaying = false;
         this.listeners = new ArrayList<>();
@@ -88,11 +95,36 @@ public class MiniPlayer implements PlaybackService.PlaybackListener {
 
         notifyTrackChanged();
         notifyPlaybackStateChanged();
+        prefetchUpcoming();
+    }
+
+    // heads of the next queue items, so skipping or auto-advancing starts from disk.
+    // what's no longer coming up is cancelled
+    private void prefetchUpcoming() {
+        if (appContext == null) return;
+        HeadPrefetcher prefetcher = HeadPrefetcher.getInstance(appContext);
+
+        List<Long> next = new ArrayList<>();
+        if (playlist != null && !isRepeatEnabled) {
+            for (int i = 1; i <= UPCOMING_PREFETCH && i < playlist.size(); i++) {
+                next.add(playlist.getId((currentIndex + i) % playlist.size()));
+            }
+        }
+        for (long id : upcoming) {
+            if (!next.contains(id)) {
+                prefetcher.cancel(id);
+            }
+        }
+        for (long id : next) {
+            if (!upcoming.contains(id)) {
+                prefetcher.prefetch(id);
+            }
+        }
+        upcoming = next;
     }
 
     public void setPlaylist(List<Track> playlist, int position) {
-        this.originalPlaylist.clear();
-        this.originalPlaylist.addAll(playlist);
+        this.originalPlaylist = TrackList.of(playlist);
 
         if (position >= 0 && (isShuffleEnabled || isRepeatEnabled)) {
             isShuffleEnabled = false;
@@ -100,7 +132,7 @@ public class MiniPlayer implements PlaybackService.PlaybackListener {
             notifyShuffleRepeatChanged();
         }
 
-        this.playlist = new ArrayList<>(playlist);
+        this.playlist = originalPlaylist;
         if (isShuffleEnabled) {
             shufflePlaylist();
         }
@@ -128,7 +160,8 @@ public class MiniPlayer implements PlaybackService.PlaybackListener {
     public void next() {
         if (playlist.isEmpty()) return;
         if (isRepeatEnabled) {
-            playTrack(playlist.get(currentIndex));
+            // the track that's playing, no need to build it again
+            playTrack(currentTrack != null ? currentTrack : playlist.get(currentIndex));
         } else {
             currentIndex = (currentIndex + 1) % playlist.size();
             playTrack(playlist.get(currentIndex));
@@ -153,27 +186,14 @@ public class MiniPlayer implements PlaybackService.PlaybackListener {
         }
 
         if (enabled) {
-            Track current = currentTrack;
             shufflePlaylist();
-            if (current != null) {
-                for (int i = 0; i < playlist.size(); i++) {
-                    if (playlist.get(i).getId() == current.getId()) {
-                        currentIndex = i;
-                        break;
-                    }
-                }
-            }
         } else {
-            Track current = currentTrack;
-            playlist.clear();
-            playlist.addAll(originalPlaylist);
-            if (current != null) {
-                for (int i = 0; i < playlist.size(); i++) {
-                    if (playlist.get(i).getId() == current.getId()) {
-                        currentIndex = i;
-                        break;
-                    }
-                }
+            playlist = originalPlaylist;
+        }
+        if (currentTrack != null) {
+            int index = playlist.indexOfId(currentTrack.getId());
+            if (index >= 0) {
+                currentIndex = index;
             }
         }
         notifyShuffleRepeatChanged();
@@ -198,10 +218,7 @@ public class MiniPlayer implements PlaybackService.PlaybackListener {
     }
 
     private void shufflePlaylist() {
-        List<Track> shuffled = new ArrayList<>(playlist);
-        java.util.Collections.shuffle(shuffled);
-        playlist.clear();
-        playlist.addAll(shuffled);
+        playlist = playlist.shuffled(random);
     }
 
     public Track getCurrentTrack() {
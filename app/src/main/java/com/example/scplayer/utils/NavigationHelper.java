@@ -5,7 +5,6 @@ import android.content.Context;
 import android.content.Intent;
 import com.example.scplayer.HomeActivity;
 import com.example.scplayer.LoginActivity;
-import com.example.scplayer.MainActivity;
 
 public class NavigationHelper {
 
@@ -26,13 +25,4 @@ public class NavigationHelper {
             ((Activity) context).finish();
         }
     }
-
-    public static void navigateToMain(Context context) {
-        Intent intent = new Intent(context, MainActivity.class);
-        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-        context.startActivity(intent);
-        if (context instanceof Activity) {
-            ((Activity) context).finish();
-        }
-    }
 }
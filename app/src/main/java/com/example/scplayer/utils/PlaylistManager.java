@@ -1,91 +1,69 @@
 package com.example.scplayer.utils;
 
+import com.example.scplayer.api.ApiFutures;
+import com.example.scplayer.api.CallRegistry;
 import com.example.scplayer.api.SoundCloudApi;
 import com.example.scplayer.models.PaginatedResponse;
 import com.example.scplayer.models.Playlist;
-import com.example.scplayer.models.Track;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class PlaylistManager {
     private final SoundCloudApi api;
+    private final CallRegistry calls;
 
     public interface PlaylistsLoadCallback {
         void onPlaylistsLoaded(List<Playlist> playlists);
+
+        // both calls failed; callers without a local copy just see an empty list
+        default void onPlaylistsError() {
+            onPlaylistsLoaded(new ArrayList<>());
+        }
     }
 
-    public PlaylistManager(SoundCloudApi api) {
+    public PlaylistManager(SoundCloudApi api, CallRegistry calls) {
         this.api = api;
+        this.calls = calls;
     }
 
+    // user and liked playlists are requested together; either one alone is still a usable result
     public void loadUserPlaylists(PlaylistsLoadCallback callback) {
-        api.getUserPlaylists(ApiConstants.USER_PLAYLISTS_LIMIT, true).enqueue(new Callback<PaginatedResponse<Playlist>>() {
-            @Override
-            public void onResponse(Call<PaginatedResponse<Playlist>> call, Response<PaginatedResponse<Playlist>> res) {
-                if (res.isSuccessful() && res.body() != null && res.body().getCollection() != null) {
-                    List<Playlist> userPlaylists = res.body().getCollection();
-                    
-                    api.getLikedPlaylistsV2(ApiConstants.LIKED_PLAYLISTS_LIMIT, 0).enqueue(new Callback<List<Playlist>>() {
-                        @Override
-                        public void onResponse(Call<List<Playlist>> call, Response<List<Playlist>> res) {
-                            if (res.isSuccessful() && res.body() != null) {
-                                mergePlaylists(userPlaylists, res.body());
-                            }
-                            callback.onPlaylistsLoaded(userPlaylists);
-                        }
+        CompletableFuture<List<Playlist>> user = ApiFutures.orElse(ApiFutures.withTimeout(
+                ApiFutures.call(calls, api.getUserPlaylists(ApiConstants.USER_PLAYLISTS_LIMIT, true)),
+                ApiConstants.REQUEST_TIMEOUT_MS).thenApply(PaginatedResponse::getCollection), null);
+        CompletableFuture<List<Playlist>> liked = ApiFutures.orElse(ApiFutures.withTimeout(
+                ApiFutures.call(calls, api.getLikedPlaylistsV2(ApiConstants.LIKED_PLAYLISTS_LIMIT, 0)),
+                ApiConstants.REQUEST_TIMEOUT_MS), null);
 
-                        @Override
-                        public void onFailure(Call<List<Playlist>> call, Throwable t) {
-                            callback.onPlaylistsLoaded(userPlaylists);
-                        }
-                    });
-                } else {
-                    loadLikedPlaylistsOnly(callback);
-                }
-            }
-
-            @Override
-            public void onFailure(Call<PaginatedResponse<Playlist>> call, Throwable t) {
-                loadLikedPlaylistsOnly(callback);
+        // merged on the data thread, the callback only gets the finished list
+        ApiFutures.deliver(user.thenCombineAsync(liked, PlaylistManager::mergePlaylists, AppExecutors.data()), calls, (merged, error) -> {
+            if (merged != null) {
+                callback.onPlaylistsLoaded(merged);
+            } else {
+                callback.onPlaylistsError();
             }
         });
     }
 
-    private void loadLikedPlaylistsOnly(PlaylistsLoadCallback callback) {
-        api.getLikedPlaylistsV2(ApiConstants.LIKED_PLAYLISTS_LIMIT, 0).enqueue(new Callback<List<Playlist>>() {
-            @Override
-            public void onResponse(Call<List<Playlist>> call, Response<List<Playlist>> res) {
-                if (res.isSuccessful() && res.body() != null) {
-                    callback.onPlaylistsLoaded(res.body());
-                } else {
-                    callback.onPlaylistsLoaded(new ArrayList<>());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<Playlist>> call, Throwable t) {
-                callback.onPlaylistsLoaded(new ArrayList<>());
-            }
-        });
-    }
+    // user playlists keep their order, liked ones the user doesn't own are appended
+    private static List<Playlist> mergePlaylists(List<Playlist> userPlaylists, List<Playlist> likedPlaylists) {
+        if (userPlaylists == null) return likedPlaylists;
+        if (likedPlaylists == null) return userPlaylists;
 
-    private void mergePlaylists(List<Playlist> userPlaylists, List<Playlist> likedPlaylists) {
-        for (Playlist liked : likedPlaylists) {
-            boolean exists = false;
-            for (Playlist user : userPlaylists) {
-                if (user.getId() == liked.getId()) {
-                    exists = true;
-                    break;
-                }
-            }
-            if (!exists) {
-                userPlaylists.add(liked);
+        List<Playlist> merged = new ArrayList<>(userPlaylists);
+        Set<Long> ids = new HashSet<>();
+        for (Playlist p : userPlaylists) {
+            ids.add(p.getId());
+        }
+        for (Playlist p : likedPlaylists) {
+            if (ids.add(p.getId())) {
+                merged.add(p);
             }
         }
+        return merged;
     }
 }
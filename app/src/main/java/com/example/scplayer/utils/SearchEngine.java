@@ -0,0 +1,205 @@
+package com.example.scplayer.utils;
+
+import android.os.SystemClock;
+
+import com.example.scplayer.api.RateLimiter;
+import com.example.scplayer.api.SoundCloudApi;
+import com.example.scplayer.data.TrackList;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.models.User;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+// remote search with an lru/ttl result cache, stale call cancellation and adaptive debounce
+public class SearchEngine {
+    // gaps longer than this are pauses, not typing cadence
+    private static final long MAX_KEYSTROKE_GAP_MS = 2000;
+    private static final double SMOOTHING = 0.3;
+
+    private final SoundCloudApi api;
+    private final LinkedHashMap<String, CacheEntry> cache =
+            new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                    return size() > ApiConstants.SEARCH_CACHE_SIZE;
+                }
+            };
+
+    private Call<List<Track>> inFlight;
+    private long lastKeystrokeAt;
+    private double avgKeystrokeGapMs = -1;
+    private double avgRttMs = -1;
+
+    public interface SearchCallback {
+        void onResults(String query, List<Track> tracks);
+        void onError(String query, String message);
+    }
+
+    private static class CacheEntry {
+        final List<Track> tracks;
+        final long storedAt;
+
+        CacheEntry(List<Track> tracks, long storedAt) {
+            this.tracks = tracks;
+            this.storedAt = storedAt;
+        }
+    }
+
+    public SearchEngine(SoundCloudApi api) {
+        this.api = api;
+    }
+
+    public static String normalize(String query) {
+        return query.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    public void onQueryTyped() {
+        long now = SystemClock.elapsedRealtime();
+        if (lastKeystrokeAt > 0) {
+            long gap = now - lastKeystrokeAt;
+            if (gap < MAX_KEYSTROKE_GAP_MS) {
+                avgKeystrokeGapMs = smooth(avgKeystrokeGapMs, gap);
+            }
+        }
+        lastKeystrokeAt = now;
+    }
+
+    // wait a bit longer than the user's usual keystroke gap; slow round trips pull the call earlier
+    // since a superseded request is cancelled anyway
+    public long getDebounceDelayMs() {
+        if (avgKeystrokeGapMs < 0) {
+            return ApiConstants.SEARCH_DEBOUNCE_DELAY_MS;
+        }
+        long delay = (long) (avgKeystrokeGapMs * 1.5);
+        if (avgRttMs > 0) {
+            delay -= (long) Math.min(avgRttMs / 4, delay / 2.0);
+        }
+        return Math.max(ApiConstants.SEARCH_MIN_DEBOUNCE_MS,
+                Math.min(ApiConstants.SEARCH_DEBOUNCE_DELAY_MS, delay));
+    }
+
+    // cached results for the query, or filtered results of the longest cached prefix
+    public List<Track> peek(String query) {
+        String q = normalize(query);
+        if (q.isEmpty()) return null;
+
+        List<Track> exact = getCached(q);
+        if (exact != null) return exact;
+
+        for (int i = q.length() - 1; i > 0; i--) {
+            List<Track> prefix = getCached(q.substring(0, i));
+            if (prefix != null) {
+                List<Track> filtered = filter(prefix, q);
+                return filtered.isEmpty() ? null : filtered;
+            }
+        }
+        return null;
+    }
+
+    public void search(String query, SearchCallback callback) {
+        String q = normalize(query);
+        cancel();
+
+        List<Track> cached = getCached(q);
+        if (cached != null) {
+            callback.onResults(query, cached);
+            return;
+        }
+
+        long startedAt = SystemClock.elapsedRealtime();
+        Call<List<Track>> call = api.searchTracks(q, ApiConstants.SEARCH_RESULTS_LIMIT, 0);
+        inFlight = call;
+        RateLimiter.getInstance().recordFeatureCall("search");
+
+        call.enqueue(new Callback<List<Track>>() {
+            @Override
+            public void onResponse(Call<List<Track>> c, Response<List<Track>> res) {
+                if (c != inFlight || c.isCanceled()) return;
+                inFlight = null;
+                avgRttMs = smooth(avgRttMs, SystemClock.elapsedRealtime() - startedAt);
+
+                if (res.isSuccessful() && res.body() != null) {
+                    cache.put(q, new CacheEntry(res.body(), SystemClock.elapsedRealtime()));
+                    callback.onResults(query, res.body());
+                } else {
+                    callback.onError(query, "Search failed: " + res.code());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<List<Track>> c, Throwable t) {
+                if (c != inFlight || c.isCanceled()) return;
+                inFlight = null;
+                // throttled: the closest cached prefix beats an error
+                List<Track> fallback = t instanceof RateLimiter.RateLimitedException ? peek(query) : null;
+                if (fallback != null) {
+                    callback.onResults(query, fallback);
+                } else {
+                    callback.onError(query, "Network error: " + t.getMessage());
+                }
+            }
+        });
+    }
+
+    public void cancel() {
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+    }
+
+    private List<Track> getCached(String q) {
+        CacheEntry entry = cache.get(q);
+        if (entry == null) return null;
+        if (SystemClock.elapsedRealtime() - entry.storedAt > ApiConstants.SEARCH_CACHE_TTL_MS) {
+            cache.remove(q);
+            return null;
+        }
+        return entry.tracks;
+    }
+
+    private static List<Track> filter(List<Track> tracks, String q) {
+        String[] tokens = q.split(" ");
+        List<Track> out = new ArrayList<>();
+        if (tracks instanceof TrackList) {
+            // only matches are built into Tracks
+            TrackList list = (TrackList) tracks;
+            for (int i = 0; i < list.size(); i++) {
+                if (matches(list.getTitle(i), list.getUser(i), tokens)) {
+                    out.add(list.get(i));
+                }
+            }
+            return out;
+        }
+        for (Track track : tracks) {
+            if (matches(track.getTitle(), track.getUser(), tokens)) {
+                out.add(track);
+            }
+        }
+        return out;
+    }
+
+    private static boolean matches(String title, User user, String[] tokens) {
+        String haystack = (title != null ? title : "") + " "
+                + (user != null && user.getUsername() != null ? user.getUsername() : "");
+        haystack = haystack.toLowerCase(Locale.ROOT);
+        for (String token : tokens) {
+            if (!haystack.contains(token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double smooth(double avg, double sample) {
+        return avg < 0 ? sample : avg + SMOOTHING * (sample - avg);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.scplayer.utils;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.scplayer.R;
+import com.example.scplayer.adapters.PlaylistAdapter;
+import com.example.scplayer.adapters.TrackAdapter;
+
+// one pool per activity so track rows and playlist cards are reused across tabs
+public class SharedViewPool {
+    private static final int MAX_TRACK_ROWS = 20;
+    private static final int MAX_PLAYLIST_CARDS = 12;
+    private static final int PREWARM_TRACK_ROWS = 10;
+    private static final int PREWARM_PLAYLIST_CARDS = 6;
+
+    public interface Host {
+        RecyclerView.RecycledViewPool getSharedViewPool();
+    }
+
+    public static RecyclerView.RecycledViewPool create() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setMaxRecycledViews(R.layout.item_track, MAX_TRACK_ROWS);
+        pool.setMaxRecycledViews(R.layout.item_playlist, MAX_PLAYLIST_CARDS);
+        return pool;
+    }
+
+    // call after setLayoutManager()
+    public static void attach(RecyclerView recyclerView, Activity activity) {
+        if (!(activity instanceof Host)) return;
+
+        recyclerView.setRecycledViewPool(((Host) activity).getSharedViewPool());
+        if (recyclerView.getLayoutManager() instanceof LinearLayoutManager) {
+            // hand rows back to the pool when the fragment view goes away
+            ((LinearLayoutManager) recyclerView.getLayoutManager()).setRecycleChildrenOnDetach(true);
+        }
+    }
+
+    // inflate one row per idle pass so the first frame isn't delayed
+    public static void prewarm(RecyclerView.RecycledViewPool pool, ViewGroup parent) {
+        TrackAdapter tracks = new TrackAdapter(null);
+        PlaylistAdapter playlists = new PlaylistAdapter(null);
+
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            private int trackRows;
+            private int playlistCards;
+
+            @Override
+            public boolean queueIdle() {
+                if (trackRows < PREWARM_TRACK_ROWS) {
+                    pool.putRecycledView(tracks.createViewHolder(parent, R.layout.item_track));
+                    trackRows++;
+                    return true;
+                }
+                if (playlistCards < PREWARM_PLAYLIST_CARDS) {
+                    pool.putRecycledView(playlists.createViewHolder(parent, R.layout.item_playlist));
+                    playlistCards++;
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.scplayer.utils;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Process;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.fragment.app.Fragment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// runs startup work in explicit stages so the visible tab gets the first frame to itself:
+//   IMMEDIATE    on the main thread, right now (only what the first frame needs)
+//   FIRST_FRAME  on the main thread, once the first frame has been drawn
+//   IDLE         on the main thread, one task per idle pass after that
+//   BACKGROUND   on a background thread, in the order they were added
+// every task is timed and logged under the ui subsystem
+public class StartupScheduler {
+    private static final String TAG = "Startup";
+    private static final Logger log = Logger.get(Logger.Subsystem.UI, TAG);
+
+    private static boolean firstMeaningfulFrameReported;
+
+    public enum Stage { IMMEDIATE, FIRST_FRAME, IDLE, BACKGROUND }
+
+    private static final class Task {
+        final Stage stage;
+        final String name;
+        final Runnable work;
+
+        Task(Stage stage, String name, Runnable work) {
+            this.stage = stage;
+            this.name = name;
+            this.work = work;
+        }
+    }
+
+    private final List<Task> tasks = new ArrayList<>();
+
+    public StartupScheduler add(Stage stage, String name, Runnable work) {
+        tasks.add(new Task(stage, name, work));
+        return this;
+    }
+
+    public void start(View root) {
+        List<Task> firstFrame = new ArrayList<>();
+        List<Task> idle = new ArrayList<>();
+        List<Task> background = new ArrayList<>();
+        for (Task task : tasks) {
+            switch (task.stage) {
+                case IMMEDIATE:
+                    run(task);
+                    break;
+                case FIRST_FRAME:
+                    firstFrame.add(task);
+                    break;
+                case IDLE:
+                    idle.add(task);
+                    break;
+                case BACKGROUND:
+                    background.add(task);
+                    break;
+            }
+        }
+
+        if (!background.isEmpty()) {
+            AppExecutors.background().execute(() -> {
+                for (Task task : background) {
+                    run(task);
+                }
+            });
+        }
+
+        afterNextDraw(root, () -> {
+            for (Task task : firstFrame) {
+                run(task);
+            }
+            scheduleIdle(idle);
+        });
+    }
+
+    private static void scheduleIdle(List<Task> idle) {
+        if (idle.isEmpty()) return;
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            private int next;
+
+            @Override
+            public boolean queueIdle() {
+                run(idle.get(next++));
+                return next < idle.size();
+            }
+        });
+    }
+
+    private static void run(Task task) {
+        long start = SystemClock.uptimeMillis();
+        task.work.run();
+        long took = SystemClock.uptimeMillis() - start;
+        log.d(() -> task.stage + " " + task.name + " took " + took + "ms");
+    }
+
+    // the frame with real content for the visible tab: logged against process start and
+    // reported to the system as fully drawn. only the first call from a visible tab counts
+    public static void markFirstMeaningfulFrame(Fragment fragment, String source) {
+        if (firstMeaningfulFrameReported || fragment.isHidden() || fragment.getView() == null) return;
+        firstMeaningfulFrameReported = true;
+
+        Activity activity = fragment.requireActivity();
+        afterNextDraw(fragment.getView(), () -> {
+            long sinceStart = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+            log.i(() -> "First meaningful frame (" + source + ") after " + sinceStart + "ms");
+            if (!activity.isFinishing()) {
+                activity.reportFullyDrawn();
+            }
+        });
+    }
+
+    private static void afterNextDraw(View view, Runnable action) {
+        view.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            private boolean fired;
+
+            @Override
+            public void onDraw() {
+                if (fired) return;
+                fired = true;
+                // listeners can't be removed from inside onDraw, and the frame isn't on screen yet
+                view.post(() -> {
+                    view.getViewTreeObserver().removeOnDrawListener(this);
+                    action.run();
+                });
+            }
+        });
+        view.invalidate();
+    }
+}
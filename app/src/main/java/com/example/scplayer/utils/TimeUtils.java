@@ -5,6 +5,11 @@ public class TimeUtils {
         long seconds = ms / 1000;
         long minutes = seconds / 60;
         seconds = seconds % 60;
-        return String.format("%d:%02d", minutes, seconds);
+
+        StringBuilder sb = new StringBuilder(8).append(minutes).append(':');
+        if (seconds < 10) {
+            sb.append('0');
+        }
+        return sb.append(seconds).toString();
     }
 }
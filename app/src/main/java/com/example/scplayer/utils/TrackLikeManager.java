@@ -1,8 +1,10 @@
 package com.example.scplayer.utils;
 
-import android.util.Log;
-
+import com.example.scplayer.api.CallRegistry;
 import com.example.scplayer.api.SoundCloudApi;
+import com.example.scplayer.data.LibraryStore;
+import com.example.scplayer.data.LibrarySync;
+import com.example.scplayer.data.RefreshCoordinator;
 import com.example.scplayer.models.Track;
 
 import java.util.ArrayList;
@@ -13,55 +15,82 @@ import retrofit2.Callback;
 import retrofit2.Response;
 
 public class TrackLikeManager {
-    private static final String TAG = "TrackLikeManager";
+    private static final Logger log = Logger.get(Logger.Subsystem.LIBRARY, "TrackLikeManager");
     
     private final SoundCloudApi api;
+    private final LibraryStore store;
+    private final LibrarySync sync;
+    private final CallRegistry calls;
+    private final RefreshCoordinator refresh;
     private final List<Long> likedTrackIds;
+    private boolean loadedFromNetwork;
     
-    public TrackLikeManager(SoundCloudApi api) {
+    public TrackLikeManager(SoundCloudApi api, LibraryStore store, LibrarySync sync, CallRegistry calls,
+                            RefreshCoordinator refresh) {
         this.api = api;
+        this.store = store;
+        this.sync = sync;
+        this.calls = calls;
+        this.refresh = refresh;
         this.likedTrackIds = new ArrayList<>();
     }
     public boolean isLiked(long trackId) {
         return likedTrackIds.contains(trackId);
     }
     
-    public void loadLikedTracks(int limit, LoadCallback callback) {
-        api.getLikedTracks(limit, 0).enqueue(new Callback<List<Track>>() {
-            @Override
-            public void onResponse(Call<List<Track>> call, Response<List<Track>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    likedTrackIds.clear();
-                    for (Track track : response.body()) {
-                        likedTrackIds.add(track.getId());
-                    }
-                    callback.onLoaded(new ArrayList<>(likedTrackIds));
-                } else {
-                    callback.onError("Failed to load: " + response.code());
-                }
+    // stored ids are delivered first. the network is only asked when the library is stale, and then
+    // through the library sync, so likes, playlists and their sync time move together. indexing
+    // and the store write happen on the data thread there
+    public void loadLikedTracks(LoadCallback callback) {
+        store.loadAsync(store::getLikedTrackIds, ids -> {
+            if (loadedFromNetwork || !calls.isActive() || ids == null) return;
+            likedTrackIds.clear();
+            likedTrackIds.addAll(ids);
+            callback.onLoaded(new ArrayList<>(likedTrackIds));
+        });
+
+        refresh.ensureFresh(RefreshCoordinator.LIBRARY, calls, () -> sync.syncLibrary((liked, playlists) -> {
+            if (liked != null && playlists != null) {
+                refresh.markSynced(RefreshCoordinator.LIBRARY);
+            } else {
+                refresh.markFailed(RefreshCoordinator.LIBRARY);
             }
-            
-            @Override
-            public void onFailure(Call<List<Track>> call, Throwable t) {
-                Log.e(TAG, "Failed to load liked tracks", t);
-                callback.onError(t.getMessage());
+            if (liked == null) {
+                callback.onError("Failed to load liked tracks");
+                return;
             }
-        });
+
+            loadedFromNetwork = true;
+            likedTrackIds.clear();
+            for (Track track : liked) {
+                likedTrackIds.add(track.getId());
+            }
+            callback.onLoaded(new ArrayList<>(likedTrackIds));
+        }));
     }
     
     public void toggleLike(Track track, boolean isCurrentlyLiked, LikeCallback callback) {
         String trackUrn = "soundcloud:tracks:" + track.getId();
         Call<Void> call = isCurrentlyLiked ? api.unlikeTrack(trackUrn) : api.likeTrack(trackUrn);
-        
+
+        // not scoped to the view: a like must land even if the user navigates away,
+        // the fragment callbacks already check they're still attached
         call.enqueue(new Callback<Void>() {
             @Override
             public void onResponse(Call<Void> c, Response<Void> response) {
                 if (response.isSuccessful()) {
                     if (isCurrentlyLiked) {
                         likedTrackIds.remove(track.getId());
+                        LibraryIndex.getInstance().removeFromSource(LibraryIndex.SOURCE_LIKES, track.getId());
+                        store.runAsync(() -> store.removeLikedTrack(track.getId()));
                     } else {
                         likedTrackIds.add(track.getId());
+                        LibraryIndex.getInstance().addToSource(LibraryIndex.SOURCE_LIKES, track);
+                        store.runAsync(() -> store.addLikedTrack(track));
                     }
+                    // the library counts and home's "latest like" are now out of date
+                    refresh.invalidate(RefreshCoordinator.LIBRARY);
+                    refresh.invalidate(RefreshCoordinator.HOME_RELATED);
                     callback.onSuccess(!isCurrentlyLiked);
                 } else {
                     callback.onError(response.code(), null);
@@ -70,7 +99,7 @@ public class TrackLikeManager {
             
             @Override
             public void onFailure(Call<Void> c, Throwable t) {
-                Log.e(TAG, "Failed to toggle like", t);
+                log.e(() -> "Failed to toggle like", t);
                 callback.onError(-1, t);
             }
         });
@@ -0,0 +1,18 @@
+package com.example.scplayer.viewmodels;
+
+// one-shot value for LiveData (toasts and the like). a view that re-subscribes after a rotation
+// gets the same Event back, but it has already been handled
+public class Event<T> {
+    private final T content;
+    private boolean handled;
+
+    public Event(T content) {
+        this.content = content;
+    }
+
+    public T getIfNotHandled() {
+        if (handled) return null;
+        handled = true;
+        return content;
+    }
+}
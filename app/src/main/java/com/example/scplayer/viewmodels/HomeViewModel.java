@@ -0,0 +1,76 @@
+package com.example.scplayer.viewmodels;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.scplayer.api.ApiFutures;
+import com.example.scplayer.api.CallRegistry;
+import com.example.scplayer.data.HomeFeed;
+import com.example.scplayer.data.LibrarySnapshot;
+import com.example.scplayer.data.RefreshCoordinator;
+import com.example.scplayer.models.Playlist;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// home cards: the snapshot copy first, then the HomeFeed cards whenever they're stale
+public class HomeViewModel extends AndroidViewModel {
+    private final CallRegistry calls = CallRegistry.forViewModel(this);
+    private final RefreshCoordinator refresh;
+    private final MutableLiveData<List<Playlist>> cards = new MutableLiveData<>();
+    private final MutableLiveData<Event<String>> messages = new MutableLiveData<>();
+
+    public HomeViewModel(@NonNull Application app) {
+        super(app);
+        refresh = RefreshCoordinator.getInstance(app);
+
+        List<Playlist> snapshotCards = LibrarySnapshot.getInstance(app).read().homeCards;
+        if (!snapshotCards.isEmpty()) {
+            cards.setValue(snapshotCards);
+        } else {
+            // nothing to show, so a recent sync time doesn't help
+            refresh.invalidate(RefreshCoordinator.HOME_RELATED);
+        }
+    }
+
+    public LiveData<List<Playlist>> getCards() {
+        return cards;
+    }
+
+    public LiveData<Event<String>> getMessages() {
+        return messages;
+    }
+
+    public void refreshIfStale() {
+        refresh.ensureFresh(RefreshCoordinator.HOME_RELATED, calls, this::refreshFeed);
+    }
+
+    // seeds that were fetched recently are reused, so a visit after a new like costs one related call
+    private void refreshFeed() {
+        CompletableFuture<List<Playlist>> built = HomeFeed.getInstance(getApplication()).refresh(calls);
+
+        // only marked once the result is published and in the snapshot. null means the api reported
+        // no likes at all; a failed likes call with nothing stored arrives as an error
+        ApiFutures.deliver(built, calls, (playlists, error) -> {
+            if (error != null) {
+                refresh.markFailed(RefreshCoordinator.HOME_RELATED);
+                messages.setValue(new Event<>("Failed to fetch related tracks"));
+                return;
+            }
+
+            refresh.markSynced(RefreshCoordinator.HOME_RELATED);
+            if (playlists == null) {
+                messages.setValue(new Event<>("No liked tracks found"));
+            } else if (playlists.isEmpty()) {
+                messages.setValue(new Event<>("No related tracks found"));
+            } else {
+                cards.setValue(playlists);
+                LibrarySnapshot.getInstance(getApplication()).updateHome(playlists);
+            }
+        });
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.scplayer.viewmodels;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.scplayer.api.ApiFutures;
+import com.example.scplayer.api.CallRegistry;
+import com.example.scplayer.data.LibrarySnapshot;
+import com.example.scplayer.data.LibraryStore;
+import com.example.scplayer.data.LibrarySync;
+import com.example.scplayer.data.RefreshCoordinator;
+import com.example.scplayer.data.TrackList;
+import com.example.scplayer.models.Playlist;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.utils.AppExecutors;
+import com.example.scplayer.utils.CollectionUtils;
+import com.example.scplayer.utils.LibraryIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// library cards: snapshot, then the store, then the sync whenever the library is stale.
+// diffing and card building run on the data thread, LiveData only ever gets finished lists
+public class LibraryViewModel extends AndroidViewModel {
+    private final CallRegistry calls = CallRegistry.forViewModel(this);
+    private final LibraryStore store;
+    private final LibrarySync sync;
+    private final RefreshCoordinator refresh;
+    private final MutableLiveData<List<Playlist>> cards = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> empty = new MutableLiveData<>(false);
+
+    private List<Track> liked = new ArrayList<>();
+    private List<Playlist> userPlaylists = new ArrayList<>();
+    private boolean libraryLoaded;
+    // sync time of the library the cards were built from
+    private long shownSync;
+
+    public LibraryViewModel(@NonNull Application app) {
+        super(app);
+        store = LibraryStore.getInstance(app);
+        sync = new LibrarySync(app, calls);
+        refresh = RefreshCoordinator.getInstance(app);
+
+        bindSnapshot();
+        loadFromStore();
+    }
+
+    public LiveData<List<Playlist>> getCards() {
+        return cards;
+    }
+
+    public LiveData<Boolean> isEmpty() {
+        return empty;
+    }
+
+    public List<Track> getLiked() {
+        return liked;
+    }
+
+    public void refreshIfStale() {
+        if (refresh.ensureFresh(RefreshCoordinator.LIBRARY, calls, this::syncLibrary)) return;
+        // a track screen or the background worker synced since; the store has the newer copy
+        if (libraryLoaded && refresh.getLastSynced(RefreshCoordinator.LIBRARY) > shownSync) {
+            reloadFromStore();
+        }
+    }
+
+    // first frame straight from the mapped snapshot, before the store or network are ready
+    private void bindSnapshot() {
+        LibrarySnapshot.Data snapshot = LibrarySnapshot.getInstance(getApplication()).read();
+        if (snapshot.libraryCards.isEmpty()) return;
+
+        liked = snapshot.likedHead;
+        cards.setValue(snapshot.libraryCards);
+    }
+
+    // render the stored library first, the sync reconciles it afterwards. indexing and the cards
+    // are done with the read, the main thread only swaps them in
+    private void loadFromStore() {
+        shownSync = refresh.getLastSynced(RefreshCoordinator.LIBRARY);
+        store.loadAsync(() -> {
+            LibraryStore.Library library = store.getLibrary();
+            indexStored(library);
+            return new Cards(library.liked, library.playlists);
+        }, loaded -> {
+            if (loaded == null || libraryLoaded) return;
+            libraryLoaded = true;
+
+            // an empty library is only shown as empty when no sync is coming to fill it
+            if (!loaded.cards.isEmpty() || !refresh.isStale(RefreshCoordinator.LIBRARY)) {
+                apply(loaded);
+            } else {
+                liked = loaded.liked;
+                userPlaylists = loaded.playlists;
+            }
+        });
+    }
+
+    // likes and every stored playlist, so library search works offline right after a restart
+    private void indexStored(LibraryStore.Library library) {
+        LibraryIndex index = LibraryIndex.getInstance();
+        index.replaceSource(LibraryIndex.SOURCE_LIKES, library.liked);
+        List<String> urns = new ArrayList<>();
+        for (Playlist p : library.playlists) {
+            if (p.getUrn() == null) continue;
+            urns.add(p.getUrn());
+            index.replaceSource(LibraryIndex.playlistSource(p.getUrn()), store.getPlaylistTracks(p.getId()));
+        }
+        index.retainPlaylistSources(urns);
+    }
+
+    private void reloadFromStore() {
+        shownSync = refresh.getLastSynced(RefreshCoordinator.LIBRARY);
+        store.loadAsync(() -> {
+            LibraryStore.Library library = store.getLibrary();
+            Cards next = new Cards(library.liked, library.playlists);
+            LibrarySnapshot.getInstance(getApplication()).updateLibrary(next.cards, next.liked);
+            return next;
+        }, loaded -> {
+            if (loaded != null) {
+                apply(loaded);
+            }
+        });
+    }
+
+    private void syncLibrary() {
+        empty.setValue(false);
+        sync.syncLibrary((newLiked, playlists) -> {
+            if (newLiked != null && playlists != null) {
+                refresh.markSynced(RefreshCoordinator.LIBRARY);
+                shownSync = refresh.getLastSynced(RefreshCoordinator.LIBRARY);
+            } else {
+                refresh.markFailed(RefreshCoordinator.LIBRARY);
+            }
+
+            // diffed against what's shown now, on the data thread; null means nothing changed
+            List<Track> currentLiked = liked;
+            List<Playlist> currentPlaylists = userPlaylists;
+            boolean force = !libraryLoaded;
+            CompletableFuture<Cards> diff = CompletableFuture.supplyAsync(() -> {
+                boolean likedChanged = newLiked != null && !CollectionUtils.areTracksEqual(currentLiked, newLiked);
+                boolean playlistsChanged = playlists != null
+                        && !CollectionUtils.arePlaylistsEqual(currentPlaylists, playlists);
+                if (!likedChanged && !playlistsChanged && !force) {
+                    return null;
+                }
+
+                Cards next = new Cards(likedChanged ? newLiked : currentLiked,
+                        playlistsChanged ? playlists : currentPlaylists);
+                LibrarySnapshot.getInstance(getApplication()).updateLibrary(next.cards, next.liked);
+                return next;
+            }, AppExecutors.data());
+
+            ApiFutures.deliver(diff, calls, (next, error) -> {
+                if (next == null) return;
+                libraryLoaded = true;
+                apply(next);
+            });
+        });
+    }
+
+    private void apply(Cards next) {
+        liked = next.liked;
+        userPlaylists = next.playlists;
+        cards.setValue(next.cards);
+        empty.setValue(next.cards.isEmpty());
+    }
+
+    // what the grid shows, built off the main thread and never modified afterwards
+    private static class Cards {
+        final List<Track> liked;
+        final List<Playlist> playlists;
+        final List<Playlist> cards;
+
+        Cards(List<Track> liked, List<Playlist> playlists) {
+            // a table view, so opening liked songs later needs no copy on the main thread
+            this.liked = TrackList.of(liked);
+            this.playlists = playlists;
+
+            List<Playlist> all = new ArrayList<>(playlists.size() + 1);
+            if (!liked.isEmpty()) {
+                all.add(createLiked(liked));
+            }
+            all.addAll(playlists);
+            this.cards = Collections.unmodifiableList(all);
+        }
+    }
+
+    private static Playlist createLiked(List<Track> liked) {
+        Playlist p = new Playlist();
+        p.setId(ApiConstants.LIKED_SONGS_PLAYLIST_ID);
+        p.setTitle("Liked Songs");
+        p.setTrackCount(liked.size());
+        p.setArtworkUrl(liked.get(0).getArtworkUrl());
+        return p;
+    }
+}
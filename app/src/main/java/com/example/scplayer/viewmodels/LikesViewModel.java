@@ -0,0 +1,81 @@
+package com.example.scplayer.viewmodels;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.api.CallRegistry;
+import com.example.scplayer.data.LibraryStore;
+import com.example.scplayer.data.LibrarySync;
+import com.example.scplayer.data.RefreshCoordinator;
+import com.example.scplayer.utils.Logger;
+import com.example.scplayer.utils.TrackLikeManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// liked track ids for one track screen. loaded once per view model, so a recreated view
+// re-observes instead of asking the api again; like changes from any screen are applied here
+public class LikesViewModel extends AndroidViewModel {
+    private static final Logger log = Logger.get(Logger.Subsystem.LIBRARY, "LikesViewModel");
+
+    private final CallRegistry calls = CallRegistry.forViewModel(this);
+    private final TrackLikeManager likeManager;
+    private final MutableLiveData<List<Long>> likedIds = new MutableLiveData<>();
+    private boolean loadStarted;
+
+    public LikesViewModel(@NonNull Application app) {
+        super(app);
+        likeManager = new TrackLikeManager(ApiClient.getSoundCloudApi(), LibraryStore.getInstance(app),
+                new LibrarySync(app, calls), calls, RefreshCoordinator.getInstance(app));
+    }
+
+    public TrackLikeManager getLikeManager() {
+        return likeManager;
+    }
+
+    public LiveData<List<Long>> getLikedIds() {
+        return likedIds;
+    }
+
+    public void load() {
+        if (loadStarted) return;
+        loadStarted = true;
+
+        likeManager.loadLikedTracks(new TrackLikeManager.LoadCallback() {
+            @Override
+            public void onLoaded(List<Long> ids) {
+                likedIds.setValue(ids);
+            }
+
+            @Override
+            public void onError(String error) {
+                // the next view to attach tries again
+                loadStarted = false;
+                log.e(() -> "Failed to load liked tracks: " + error);
+            }
+        });
+    }
+
+    public boolean isLiked(long trackId) {
+        List<Long> ids = likedIds.getValue();
+        return ids != null && ids.contains(trackId);
+    }
+
+    public void setLiked(long trackId, boolean liked) {
+        List<Long> current = likedIds.getValue();
+        if (current != null && current.contains(trackId) == liked) return;
+
+        List<Long> next = current != null ? new ArrayList<>(current) : new ArrayList<>();
+        if (liked) {
+            next.add(0, trackId);
+        } else {
+            next.remove(Long.valueOf(trackId));
+        }
+        likedIds.setValue(next);
+    }
+}
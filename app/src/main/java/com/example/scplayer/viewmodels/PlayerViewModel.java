@@ -0,0 +1,90 @@
+package com.example.scplayer.viewmodels;
+
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.scplayer.models.Track;
+import com.example.scplayer.utils.MiniPlayer;
+
+// player state as LiveData, shared by the mini and big player through the activity. it listens to
+// MiniPlayer for as long as the activity lives, so recreated views just re-observe
+public class PlayerViewModel extends ViewModel implements
+        MiniPlayer.StateListener, MiniPlayer.ErrorListener, MiniPlayer.ShuffleRepeatListener {
+
+    private final MiniPlayer player = MiniPlayer.getInstance();
+    private final MutableLiveData<Track> track = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> playing = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> shuffle = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> repeat = new MutableLiveData<>();
+    private final MutableLiveData<Event<String>> errors = new MutableLiveData<>();
+
+    public PlayerViewModel() {
+        track.setValue(player.getCurrentTrack());
+        playing.setValue(player.isPlaying());
+        shuffle.setValue(player.isShuffleEnabled());
+        repeat.setValue(player.isRepeatEnabled());
+        player.addListener(this);
+    }
+
+    public MiniPlayer getPlayer() {
+        return player;
+    }
+
+    public LiveData<Track> getTrack() {
+        return track;
+    }
+
+    public LiveData<Boolean> isPlaying() {
+        return playing;
+    }
+
+    public LiveData<Boolean> isShuffleEnabled() {
+        return shuffle;
+    }
+
+    public LiveData<Boolean> isRepeatEnabled() {
+        return repeat;
+    }
+
+    public LiveData<Event<String>> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public void onTrackChanged(Track t) {
+        publish(track, t);
+    }
+
+    @Override
+    public void onPlaybackStateChanged(boolean isPlaying) {
+        publish(playing, isPlaying);
+    }
+
+    @Override
+    public void onShuffleRepeatChanged(boolean shuffleEnabled, boolean repeatEnabled) {
+        publish(shuffle, shuffleEnabled);
+        publish(repeat, repeatEnabled);
+    }
+
+    @Override
+    public void onPlaybackError(String message) {
+        publish(errors, new Event<>(message));
+    }
+
+    // player callbacks may come from the service's threads
+    private static <T> void publish(MutableLiveData<T> data, T value) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            data.setValue(value);
+        } else {
+            data.postValue(value);
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        player.removeListener(this);
+    }
+}
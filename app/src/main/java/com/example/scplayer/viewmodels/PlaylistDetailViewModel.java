@@ -0,0 +1,135 @@
+package com.example.scplayer.viewmodels;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.scplayer.api.CallRegistry;
+import com.example.scplayer.data.LibraryStore;
+import com.example.scplayer.data.LibrarySync;
+import com.example.scplayer.data.PlaylistRepository;
+import com.example.scplayer.data.RefreshCoordinator;
+import com.example.scplayer.models.Playlist;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// tracks of one playlist. handed over or stored copy first, the server only when that copy is stale
+public class PlaylistDetailViewModel extends AndroidViewModel {
+    private static final Logger log = Logger.get(Logger.Subsystem.LIBRARY, "PlaylistDetail");
+
+    private final CallRegistry calls = CallRegistry.forViewModel(this);
+    private final PlaylistRepository repository;
+    private final RefreshCoordinator refresh;
+    private final MutableLiveData<List<Track>> tracks = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> empty = new MutableLiveData<>(false);
+
+    private Playlist playlist;
+
+    public PlaylistDetailViewModel(@NonNull Application app) {
+        super(app);
+        repository = PlaylistRepository.getInstance(app);
+        refresh = RefreshCoordinator.getInstance(app);
+    }
+
+    // the first view to attach starts the load, recreated views get the same state back.
+    // after process death the repository is empty, so the header is rebuilt from the arguments
+    public void init(long playlistId, String title, String urn) {
+        if (playlist != null) return;
+
+        Playlist p = repository.getPlaylist(playlistId);
+        if (p == null) {
+            p = new Playlist();
+            p.setId(playlistId);
+            p.setTitle(title);
+            p.setUrn(urn);
+            repository.put(p);
+        }
+        playlist = p;
+        loadTracks();
+
+        // real playlists only; the start of the ones opened last is worth precaching
+        if (playlistId > 0) {
+            LibraryStore store = LibraryStore.getInstance(getApplication());
+            store.runAsync(() -> store.recordPlaylistOpen(playlistId));
+        }
+    }
+
+    public Playlist getPlaylist() {
+        return playlist;
+    }
+
+    public LiveData<List<Track>> getTracks() {
+        return tracks;
+    }
+
+    public LiveData<Boolean> isEmpty() {
+        return empty;
+    }
+
+    public boolean isLikedPlaylist() {
+        return playlist != null && playlist.getId() == ApiConstants.LIKED_SONGS_PLAYLIST_ID;
+    }
+
+    // unliked from the liked songs list
+    public void removeTrack(int pos) {
+        List<Track> current = tracks.getValue();
+        if (current == null || pos < 0 || pos >= current.size()) return;
+
+        List<Track> next = new ArrayList<>(current);
+        next.remove(pos);
+        repository.putTracks(ApiConstants.LIKED_SONGS_PLAYLIST_ID, next);
+        tracks.setValue(next);
+        empty.setValue(next.isEmpty());
+    }
+
+    private void loadTracks() {
+        boolean canSync = playlist.getUrn() != null;
+        String key = RefreshCoordinator.playlistTracks(playlist.getId());
+        repository.loadTracks(playlist.getId(), resolved -> {
+            if (tracks.getValue() != null) return;
+            if (!resolved.isEmpty()) {
+                tracks.setValue(resolved);
+                empty.setValue(false);
+            } else if (canSync) {
+                // nothing local, so a recent sync time can't be trusted
+                refresh.invalidate(key);
+                refresh.ensureFresh(key, calls, this::syncTracks);
+            } else {
+                empty.setValue(true);
+            }
+        });
+
+        if (canSync) {
+            refresh.ensureFresh(key, calls, this::syncTracks);
+        }
+    }
+
+    private void syncTracks() {
+        String key = RefreshCoordinator.playlistTracks(playlist.getId());
+        new LibrarySync(getApplication(), calls).syncPlaylistTracks(playlist, new LibrarySync.TracksCallback() {
+            @Override
+            public void onSynced(List<Track> synced) {
+                refresh.markSynced(key);
+                tracks.setValue(synced);
+                empty.setValue(synced.isEmpty());
+            }
+
+            @Override
+            public void onError(String error) {
+                refresh.markFailed(key);
+                log.d(() -> error);
+                List<Track> current = tracks.getValue();
+                if (current == null || current.isEmpty()) {
+                    empty.setValue(true);
+                }
+            }
+        });
+    }
+}
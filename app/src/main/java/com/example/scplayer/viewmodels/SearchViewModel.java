@@ -0,0 +1,129 @@
+package com.example.scplayer.viewmodels;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.scplayer.api.ApiClient;
+import com.example.scplayer.models.Track;
+import com.example.scplayer.utils.ApiConstants;
+import com.example.scplayer.utils.LibraryIndex;
+import com.example.scplayer.utils.Logger;
+import com.example.scplayer.utils.SearchEngine;
+
+import java.util.Collections;
+import java.util.List;
+
+// query, debounce and results. the engine (and its cache and in-flight call) stays with the
+// view model, so a rotation mid-search neither cancels nor repeats the request
+public class SearchViewModel extends ViewModel {
+    private static final Logger log = Logger.get(Logger.Subsystem.SEARCH, "SearchViewModel");
+
+    private final SearchEngine engine = new SearchEngine(ApiClient.getSoundCloudApi());
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final MutableLiveData<List<Track>> results = new MutableLiveData<>();
+    private final MutableLiveData<List<Track>> libraryHits = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> empty = new MutableLiveData<>();
+
+    private String query = "";
+    private Runnable pending;
+
+    public LiveData<List<Track>> getResults() {
+        return results;
+    }
+
+    public LiveData<List<Track>> getLibraryHits() {
+        return libraryHits;
+    }
+
+    public LiveData<Boolean> isEmpty() {
+        return empty;
+    }
+
+    // the restored EditText reports its text again after a rotation; that's not a new query
+    public void onQueryChanged(String text) {
+        if (text.equals(query)) return;
+        query = text;
+
+        if (pending != null) {
+            handler.removeCallbacks(pending);
+        }
+        // the older query's response would land on top of what's shown for this one
+        engine.cancel();
+
+        if (text.length() > 0) {
+            engine.onQueryTyped();
+            showLibraryHits(text);
+
+            // show cached or prefix results right away, the network call refines them
+            List<Track> provisional = engine.peek(text);
+            if (provisional != null) {
+                results.setValue(provisional);
+                empty.setValue(false);
+            }
+
+            pending = () -> performSearch(text);
+            handler.postDelayed(pending, engine.getDebounceDelayMs());
+        } else {
+            results.setValue(Collections.emptyList());
+            showLibraryHits("");
+            empty.setValue(true);
+        }
+    }
+
+    private void performSearch(String q) {
+        empty.setValue(false);
+
+        engine.search(q, new SearchEngine.SearchCallback() {
+            @Override
+            public void onResults(String query, List<Track> tracks) {
+                if (!query.equals(SearchViewModel.this.query)) return;
+                results.setValue(tracks);
+                if (tracks.isEmpty()) {
+                    empty.setValue(!hasLibraryHits());
+                    log.d(() -> "No tracks found");
+                } else {
+                    empty.setValue(false);
+                }
+            }
+
+            @Override
+            public void onError(String query, String message) {
+                if (!query.equals(SearchViewModel.this.query)) return;
+                // keep provisional and library results if there are any, offline search still works
+                List<Track> current = results.getValue();
+                if ((current == null || current.isEmpty()) && !hasLibraryHits()) {
+                    empty.setValue(true);
+                }
+                log.d(() -> message);
+            }
+        });
+    }
+
+    // local index answers instantly, remote results load below
+    private void showLibraryHits(String q) {
+        List<Track> hits = q.trim().isEmpty()
+                ? Collections.emptyList()
+                : LibraryIndex.getInstance().search(q, ApiConstants.LIBRARY_SEARCH_LIMIT);
+        libraryHits.setValue(hits);
+        if (!hits.isEmpty()) {
+            empty.setValue(false);
+        }
+    }
+
+    private boolean hasLibraryHits() {
+        List<Track> hits = libraryHits.getValue();
+        return hits != null && !hits.isEmpty();
+    }
+
+    @Override
+    protected void onCleared() {
+        if (pending != null) {
+            handler.removeCallbacks(pending);
+        }
+        engine.cancel();
+    }
+}